@@ -0,0 +1,98 @@
+package org.codehaus.mojo.gwt;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Module discovery, module inheritance, GWT resource collection and classpath building, over generated projects of
+ * 10, 100 and 1000 modules.
+ * <p>
+ * Each invocation uses a new mojo, as a build does, while the plexus components (module cache, classpath resource
+ * index) are shared across invocations, as they are across the mojos of a build.
+ *
+ * @since 2.8.0
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ModuleBenchmark
+{
+    @Param( { "10", "100", "1000" } )
+    private int modules;
+
+    private SyntheticProject project;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        project = new SyntheticProject( modules, new File( "target/synthetic/" + modules ) );
+    }
+
+    @Benchmark
+    public String[] getModules()
+        throws Exception
+    {
+        return project.newMojo().getModules();
+    }
+
+    @Benchmark
+    public Set<GwtModule> getInherits()
+        throws Exception
+    {
+        return project.newMojo().readModule( project.getLastModule() ).getInherits();
+    }
+
+    @Benchmark
+    public Collection<?> getAllResourceFiles()
+        throws Exception
+    {
+        return project.newMojo().getAllResourceFiles();
+    }
+
+    @Benchmark
+    public Collection<File> buildClasspathList()
+        throws Exception
+    {
+        return project.getClasspathBuilder().buildClasspathList( project.getProject(), Artifact.SCOPE_COMPILE,
+                                                                 project.getArtifacts(), false );
+    }
+}
@@ -0,0 +1,328 @@
+package org.codehaus.mojo.gwt;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Resource;
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.gwt.utils.ClasspathResourceIndex;
+import org.codehaus.mojo.gwt.utils.GwtModuleCache;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Opcodes;
+
+/**
+ * A generated project of <code>size</code> GWT modules, to benchmark the plugin against projects of growing size.
+ * <p>
+ * Each module <code>com.example.mN.ModuleN</code> inherits up to three previous modules, has a few client sources and
+ * a UiBinder template, declares a servlet, and has a compiled <code>RemoteService</code> interface and servlet. The
+ * project also depends on <code>size</code> library artifacts and has a <code>web.xml</code> to merge servlets into.
+ *
+ * @since 2.8.0
+ */
+public class SyntheticProject
+{
+    private static final int SOURCES_PER_MODULE = 5;
+
+    private final int size;
+
+    private final File basedir;
+
+    private final MavenProject project;
+
+    private final Set<Artifact> artifacts = new LinkedHashSet<Artifact>();
+
+    private final Logger logger = new ConsoleLogger( Logger.LEVEL_WARN, "benchmark" );
+
+    private final ClasspathBuilder classpathBuilder = new ClasspathBuilder();
+
+    private final GwtModuleCache moduleCache = new GwtModuleCache();
+
+    private final ClasspathResourceIndex resourceIndex = new ClasspathResourceIndex();
+
+    /**
+     * Generate the project, unless already generated by a previous run.
+     *
+     * @param size the number of modules
+     * @param basedir the directory to generate the project into
+     * @throws IOException if the project can't be written
+     */
+    public SyntheticProject( int size, File basedir )
+        throws IOException
+    {
+        this.size = size;
+        this.basedir = basedir;
+        File marker = new File( basedir, "generated" );
+        if ( !marker.exists() )
+        {
+            FileUtils.deleteDirectory( basedir );
+            generate();
+            marker.createNewFile();
+        }
+
+        project = new MavenProject();
+        Build build = new Build();
+        build.setDirectory( new File( basedir, "target" ).getPath() );
+        build.setOutputDirectory( getClassesDirectory().getPath() );
+        build.setTestOutputDirectory( new File( basedir, "target/test-classes" ).getPath() );
+        Resource resource = new Resource();
+        resource.setDirectory( new File( basedir, "src/main/resources" ).getPath() );
+        build.addResource( resource );
+        project.getModel().setBuild( build );
+        project.addCompileSourceRoot( new File( basedir, "src/main/java" ).getPath() );
+
+        DefaultArtifactHandler handler = new DefaultArtifactHandler( "jar" );
+        handler.setAddedToClasspath( true );
+        for ( int i = 0; i < size; i++ )
+        {
+            Artifact artifact =
+                new DefaultArtifact( "com.example", "lib" + i, VersionRange.createFromVersion( "1.0" ),
+                                     i % 10 == 0 ? Artifact.SCOPE_TEST : Artifact.SCOPE_COMPILE, "jar", null, handler );
+            artifact.setFile( new File( basedir, "repository/lib" + i + "-1.0.jar" ) );
+            artifacts.add( artifact );
+        }
+
+        classpathBuilder.enableLogging( logger );
+        moduleCache.enableLogging( logger );
+        resourceIndex.enableLogging( logger );
+    }
+
+    private void generate()
+        throws IOException
+    {
+        new File( basedir, "src/main/resources" ).mkdirs();
+        for ( int i = 0; i < size; i++ )
+        {
+            String packageName = "com.example.m" + i;
+            File packageDir = new File( basedir, "src/main/java/com/example/m" + i );
+
+            StringBuilder module = new StringBuilder( "<module>\n  <inherits name=\"com.google.gwt.user.User\"/>\n" );
+            for ( int parent : new int[] { i - 1, i / 2, i / 3 } )
+            {
+                if ( parent >= 0 && parent < i )
+                {
+                    module.append( "  <inherits name=\"com.example.m" ).append( parent ).append( ".Module" )
+                        .append( parent ).append( "\"/>\n" );
+                }
+            }
+            module.append( "  <source path=\"client\"/>\n" );
+            module.append( "  <servlet path=\"/service" ).append( i ).append( "\" class=\"" ).append( packageName )
+                .append( ".server.Service" ).append( i ).append( "Impl\"/>\n" );
+            module.append( "</module>\n" );
+            write( new File( packageDir, "Module" + i + ".gwt.xml" ), module.toString() );
+
+            for ( int s = 0; s < SOURCES_PER_MODULE; s++ )
+            {
+                write( new File( packageDir, "client/Widget" + s + ".java" ), "package " + packageName
+                    + ".client;\n\npublic class Widget" + s + "\n{\n}\n" );
+            }
+            write( new File( packageDir, "client/Widget0.ui.xml" ), "<ui:UiBinder xmlns:ui=\"urn:ui:com.google.gwt"
+                + ".uibinder\"/>\n" );
+            write( new File( packageDir, "server/Service" + i + "Impl.java" ), "package " + packageName
+                + ".server;\n\npublic class Service" + i + "Impl\n{\n}\n" );
+
+            writeServlet( "com/example/m" + i + "/server/Service" + i );
+        }
+
+        StringBuilder webXml = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        webXml.append( "<web-app xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"2.5\">\n" );
+        webXml.append( "  <display-name>synthetic</display-name>\n" );
+        webXml.append( "  <filter><filter-name>f</filter-name><filter-class>com.example.Filter</filter-class>" );
+        webXml.append( "</filter>\n" );
+        webXml.append( "  <servlet><servlet-name>s</servlet-name><servlet-class>com.example.Servlet</servlet-class>" );
+        webXml.append( "</servlet>\n" );
+        webXml.append( "  <servlet-mapping><servlet-name>s</servlet-name><url-pattern>/s</url-pattern>" );
+        webXml.append( "</servlet-mapping>\n" );
+        webXml.append( "  <welcome-file-list><welcome-file>index.html</welcome-file></welcome-file-list>\n" );
+        webXml.append( "</web-app>\n" );
+        write( getWebXml(), webXml.toString() );
+    }
+
+    /**
+     * Write a <code>RemoteService</code> interface annotated with <code>RemoteServiceRelativePath</code> and its
+     * servlet, as the class files the annotation finder scans.
+     */
+    private void writeServlet( String name )
+        throws IOException
+    {
+        ClassWriter service = new ClassWriter( false );
+        service.visit( Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, name, null,
+                       "java/lang/Object", new String[] { "com/google/gwt/user/client/rpc/RemoteService" } );
+        AnnotationVisitor path =
+            service.visitAnnotation( "Lcom/google/gwt/user/client/rpc/RemoteServiceRelativePath;", true );
+        path.visit( "value", name.substring( name.lastIndexOf( '/' ) + 1 ).toLowerCase() );
+        path.visitEnd();
+        service.visitEnd();
+        writeClass( name, service.toByteArray() );
+
+        ClassWriter servlet = new ClassWriter( false );
+        servlet.visit( Opcodes.V1_6, Opcodes.ACC_PUBLIC, name + "Impl", null,
+                       "com/google/gwt/user/server/rpc/RemoteServiceServlet", new String[] { name } );
+        servlet.visitEnd();
+        writeClass( name + "Impl", servlet.toByteArray() );
+    }
+
+    private void writeClass( String name, byte[] bytes )
+        throws IOException
+    {
+        File file = new File( getClassesDirectory(), name + ".class" );
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( bytes );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, "UTF-8", content );
+    }
+
+    /**
+     * Create a mojo for the project, with the components shared by all mojos of a build. Mojos cache the modules they
+     * read, so a new mojo is needed to measure a cold build.
+     *
+     * @return a mojo to run the plugin code against
+     * @throws Exception if the mojo can't be configured
+     */
+    public GwtResourcesBaseMojo newMojo()
+        throws Exception
+    {
+        GwtResourcesBaseMojo mojo = new GwtResourcesBaseMojo()
+        {
+            public void execute()
+                throws MojoExecutionException
+            {
+                // only used for its helper methods
+            }
+        };
+        ReflectionUtils.setVariableValueInObject( mojo, "project", project );
+        ReflectionUtils.setVariableValueInObject( mojo, "classpathBuilder", classpathBuilder );
+        ReflectionUtils.setVariableValueInObject( mojo, "moduleCache", moduleCache );
+        ReflectionUtils.setVariableValueInObject( mojo, "resourceIndex", resourceIndex );
+        mojo.setLog( getLog() );
+        return mojo;
+    }
+
+    /**
+     * @return a log of warnings and errors only
+     */
+    public Log getLog()
+    {
+        return new DefaultLog( logger );
+    }
+
+    /**
+     * @return a plexus logger of warnings and errors only
+     */
+    public Logger getLogger()
+    {
+        return logger;
+    }
+
+    /**
+     * @return the number of modules
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return the name of the module inheriting the most modules
+     */
+    public String getLastModule()
+    {
+        return "com.example.m" + ( size - 1 ) + ".Module" + ( size - 1 );
+    }
+
+    /**
+     * @return the Maven project
+     */
+    public MavenProject getProject()
+    {
+        return project;
+    }
+
+    /**
+     * @return the dependencies of the project, one in ten in test scope
+     */
+    public Set<Artifact> getArtifacts()
+    {
+        return artifacts;
+    }
+
+    /**
+     * @return the classpath builder, shared by all mojos
+     */
+    public ClasspathBuilder getClasspathBuilder()
+    {
+        return classpathBuilder;
+    }
+
+    /**
+     * @return the directory of the compiled servlets
+     */
+    public File getClassesDirectory()
+    {
+        return new File( basedir, "target/classes" );
+    }
+
+    /**
+     * @return the web.xml to merge servlets into
+     */
+    public File getWebXml()
+    {
+        return new File( basedir, "src/main/webapp/WEB-INF/web.xml" );
+    }
+
+    /**
+     * @return the base directory of the project
+     */
+    public File getBasedir()
+    {
+        return basedir;
+    }
+}
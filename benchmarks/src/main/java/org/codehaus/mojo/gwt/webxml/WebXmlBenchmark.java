@@ -0,0 +1,101 @@
+package org.codehaus.mojo.gwt.webxml;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.mojo.gwt.SyntheticProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Servlet annotation scanning and web.xml merging, over generated projects of 10, 100 and 1000 modules, each with a
+ * <code>RemoteService</code> servlet.
+ *
+ * @since 2.8.0
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class WebXmlBenchmark
+{
+    @Param( { "10", "100", "1000" } )
+    private int modules;
+
+    private SyntheticProject project;
+
+    private ClassLoader classLoader;
+
+    private ServletAnnotationFinder finder;
+
+    private Set<ServletDescriptor> servlets;
+
+    private File mergedWebXml;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        project = new SyntheticProject( modules, new File( "target/synthetic/" + modules ) );
+        classLoader = new URLClassLoader( new URL[] { project.getClassesDirectory().toURI().toURL() },
+                                          getClass().getClassLoader() );
+        finder = new ServletAnnotationFinder();
+        finder.enableLogging( project.getLogger() );
+        servlets = finder.findServlets( "com.example", null, classLoader );
+        if ( servlets.size() != modules )
+        {
+            throw new IllegalStateException( "found " + servlets.size() + " servlets in " + modules + " modules" );
+        }
+        mergedWebXml = new File( project.getBasedir(), "target/web.xml" );
+        mergedWebXml.getParentFile().mkdirs();
+    }
+
+    @Benchmark
+    public Set<ServletDescriptor> findServlets()
+        throws Exception
+    {
+        return finder.findServlets( "com.example", null, classLoader );
+    }
+
+    @Benchmark
+    public File process()
+        throws Exception
+    {
+        new GwtWebInfProcessor().process( project.getWebXml(), mergedWebXml, servlets );
+        return mergedWebXml;
+    }
+}
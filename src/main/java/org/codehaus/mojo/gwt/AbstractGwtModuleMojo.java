@@ -20,30 +20,27 @@ package org.codehaus.mojo.gwt;
  */
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.mojo.gwt.utils.ClasspathResourceIndex;
 import org.codehaus.mojo.gwt.utils.DefaultGwtModuleReader;
+import org.codehaus.mojo.gwt.utils.GwtModuleCache;
 import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
 import org.codehaus.plexus.util.DirectoryScanner;
-import org.codehaus.plexus.util.ReaderFactory;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 
 /**
  * Add support for GWT Modules.
@@ -69,6 +66,22 @@ public abstract class AbstractGwtModuleMojo
     @Parameter(property = "gwt.module")
     private String module;
 
+    @Component
+    private GwtModuleCache moduleCache;
+
+    @Component
+    private ClasspathResourceIndex resourceIndex;
+
+    /**
+     * Compile classpath used to resolve modules, computed on first use
+     */
+    private Collection<File> moduleClasspath;
+
+    /**
+     * Modules already read by this mojo, so that inherited modules are only resolved once
+     */
+    private final Map<String, GwtModule> gwtModules = new HashMap<String, GwtModule>();
+
     /**
      * <p>getGwtModules.</p>
      *
@@ -153,6 +166,18 @@ public abstract class AbstractGwtModuleMojo
     /** {@inheritDoc} */
     public GwtModule readModule( String name )
         throws GwtModuleReaderException
+    {
+        GwtModule gwtModule = gwtModules.get( name );
+        if ( gwtModule == null )
+        {
+            gwtModule = findModule( name );
+            gwtModules.put( name, gwtModule );
+        }
+        return gwtModule;
+    }
+
+    private GwtModule findModule( String name )
+        throws GwtModuleReaderException
     {
         String modulePath = name.replace( '.', '/' ) + DefaultGwtModuleReader.GWT_MODULE_EXTENSION;
         Collection<String> sourceRoots = getProject().getCompileSourceRoots();
@@ -163,7 +188,7 @@ public abstract class AbstractGwtModuleMojo
             if ( xml.exists() )
             {
                 getLog().debug( "GWT module " + name + " found in " + root );
-                return readModule( name, xml );
+                return moduleCache.readModule( name, xml, this );
             }
         }
         Collection<Resource> resources = getProject().getResources();
@@ -174,70 +199,28 @@ public abstract class AbstractGwtModuleMojo
             if ( xml.exists() )
             {
                 getLog().debug( "GWT module " + name + " found in " + root );
-                return readModule( name, xml );
+                return moduleCache.readModule( name, xml, this );
             }
         }
 
         try
         {
-            Collection<File> classpath = getClasspath( Artifact.SCOPE_COMPILE );
-            URL[] urls = new URL[classpath.size()];
-            int i = 0;
-            for ( File file : classpath )
+            if ( moduleClasspath == null )
             {
-                urls[i++] = file.toURI().toURL();
-            }
-            InputStream stream = new URLClassLoader( urls ).getResourceAsStream( modulePath );
-            if ( stream != null )
-            {
-                return readModule( name, stream );
+                moduleClasspath = getClasspath( Artifact.SCOPE_COMPILE );
             }
         }
-        catch ( MalformedURLException e )
-        {
-            // ignored;
-        } catch (MojoExecutionException e)
+        catch ( MojoExecutionException e )
         {
-            throw new GwtModuleReaderException(e.getMessage(), e);
+            throw new GwtModuleReaderException( e.getMessage(), e );
         }
-
-        throw new GwtModuleReaderException( "GWT Module " + name + " not found in project sources or resources." );
-    }
-
-    private GwtModule readModule( String name, File file )
-        throws GwtModuleReaderException
-
-    {
-        try
-        {
-            GwtModule module = readModule( name, new FileInputStream( file ) );
-            module.setSourceFile(file);
-            return module;
-        }
-        catch ( FileNotFoundException e )
+        URL url = resourceIndex.findModule( moduleClasspath, modulePath );
+        if ( url != null )
         {
-            throw new GwtModuleReaderException( "Failed to read module file " + file );
+            return moduleCache.readModule( name, url, this );
         }
-    }
 
-    /**
-     * @param module2
-     * @return
-     */
-    private GwtModule readModule( String name, InputStream xml )
-        throws GwtModuleReaderException
-    {
-        try
-        {
-            Xpp3Dom dom = Xpp3DomBuilder.build( ReaderFactory.newXmlReader( xml ) );
-            return new GwtModule( name, dom, this );
-        }
-        catch ( Exception e )
-        {
-            String error = "Failed to read module XML file " + xml;
-            getLog().error( error );
-            throw new GwtModuleReaderException( error, e );
-        }
+        throw new GwtModuleReaderException( "GWT Module " + name + " not found in project sources or resources." );
     }
 
 }
@@ -56,6 +56,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectBuilder;
 import org.apache.maven.project.artifact.MavenMetadataSource;
+import org.codehaus.mojo.gwt.utils.SdkClasspathCache;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -93,6 +94,9 @@ public abstract class AbstractGwtMojo
     @Component
     protected ClasspathBuilder classpathBuilder;
 
+    @Component
+    private SdkClasspathCache sdkClasspathCache;
+
     // --- Some MavenSession related structures --------------------------------
 
     @Parameter(defaultValue = "${localRepository}", required = true, readonly = true)
@@ -171,6 +175,19 @@ public abstract class AbstractGwtMojo
     @Parameter(defaultValue = "false", property = "gwt.gwtSdkFirstInClasspath")
     protected boolean gwtSdkFirstInClasspath;
 
+    /**
+     * File to record the resolved GWT SDK classpath to, so that it is only resolved once per GWT version rather than
+     * once per build. The SDK is resolved again if one of the recorded jars no longer exists.
+     * <p>
+     * Can be set from command line using '-Dgwt.sdkLockFile=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(property = "gwt.sdkLockFile")
+    private File sdkLockFile;
+
+    private boolean gwtUserVersionChecked;
+
     /**
      * <p>getOutputDirectory.</p>
      *
@@ -300,6 +317,14 @@ public abstract class AbstractGwtMojo
           throw new MojoExecutionException( "Failed to resolve artifact "+artifactId+" from \n"+pluginArtifactMap);
         }
 
+        final String key = rootArtifact.getId();
+        final List<File> cached = sdkClasspathCache.get( key, sdkLockFile );
+        if ( cached != null )
+        {
+            getLog().debug( "Reuse resolved classpath of " + key );
+            return new ArrayList<File>( cached );
+        }
+
         ArtifactResolutionResult result;
         try
         {
@@ -322,13 +347,14 @@ public abstract class AbstractGwtMojo
         }
 
         final Collection<Artifact> resolved = result.getArtifacts();
-        final Collection<File> files = new ArrayList<File>(resolved.size() + 1 );
+        final List<File> files = new ArrayList<File>(resolved.size() + 1 );
         files.add( rootArtifact.getFile() );
         for ( final Artifact artifact : resolved )
         {
             files.add( artifact.getFile() );
         }
 
+        sdkClasspathCache.put( key, files, sdkLockFile );
         return files;
     }
 
@@ -337,6 +363,11 @@ public abstract class AbstractGwtMojo
      */
     private void checkGwtUserVersion() throws MojoExecutionException
     {
+        if ( gwtUserVersionChecked )
+        {
+            return;
+        }
+        gwtUserVersionChecked = true;
         final InputStream inputStream = Thread.currentThread().getContextClassLoader()
             .getResourceAsStream( "org/codehaus/mojo/gwt/mojoGwtVersion.properties" );
         final Properties properties = new Properties();
@@ -19,20 +19,33 @@ package org.codehaus.mojo.gwt;
  * under the License.
  */
 
-import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -41,6 +54,9 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.codehaus.mojo.gwt.utils.Fingerprint;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.Scanner;
 import org.sonatype.plexus.build.incremental.BuildContext;
 
@@ -64,6 +80,8 @@ public class GenerateAsyncMojo
 {
     private static final String REMOTE_SERVICE_INTERFACE = "com.google.gwt.user.client.rpc.RemoteService";
 
+    private static final String OPTIONS = "options";
+
     private final static Map<String, String> WRAPPERS = new HashMap<String, String>();
     static
     {
@@ -112,9 +130,34 @@ public class GenerateAsyncMojo
     @Parameter(property = "project.build.sourceEncoding")
     private String encoding;
 
+    /**
+     * Fingerprints of the service interfaces, of the source files of the interfaces they extend and of the generated
+     * Async interfaces, to only parse and generate the services that changed since the last build.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-generateAsync", readonly = true)
+    private File fingerprintDirectory;
+
+    /**
+     * Number of services to parse and generate Async interfaces for concurrently.
+     * <p>
+     * Can be set from command line using '-Dgwt.generateAsync.threads=n'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "4", property = "gwt.generateAsync.threads")
+    private int threads;
+
     @Component
     private BuildContext buildContext;
 
+    /** A QDox model per generation thread, as QDox resolves types lazily and isn't thread safe */
+    private final ThreadLocal<JavaDocBuilder> builders = new ThreadLocal<JavaDocBuilder>();
+
+    /** Created on first use, as most builds have no service to generate */
+    private ClassLoader projectClassLoader;
+
     /** {@inheritDoc} */
     @Override
     protected boolean isGenerator()
@@ -144,66 +187,189 @@ public class GenerateAsyncMojo
             encoding = Charset.defaultCharset().name();
         }
 
-        JavaDocBuilder builder = createJavaDocBuilder();
-
         List<String> sourceRoots = getProject().getCompileSourceRoots();
-        for ( String sourceRoot : sourceRoots )
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, threads ) );
+        try
         {
-            try
+            Map<String, Future<?>> results = new LinkedHashMap<String, Future<?>>();
+            for ( String sourceRoot : sourceRoots )
             {
-                scanAndGenerateAsync( new File( sourceRoot ), builder );
+                try
+                {
+                    scanAndGenerateAsync( new File( sourceRoot ), executor, results );
+                }
+                catch ( Throwable e )
+                {
+                    getLog().error( "Failed to generate Async interface", e );
+                    if ( failOnError )
+                    {
+                        throw new MojoExecutionException( "Failed to generate Async interface", e );
+                    }
+                }
             }
-            catch ( Throwable e )
+
+            for ( Map.Entry<String, Future<?>> result : results.entrySet() )
             {
-                getLog().error( "Failed to generate Async interface", e );
-                if ( failOnError )
+                try
+                {
+                    result.getValue().get();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException( "Interrupted while generating Async interfaces", e );
+                }
+                catch ( ExecutionException e )
                 {
-                    throw new MojoExecutionException( "Failed to generate Async interface", e );
+                    getLog().error( "Failed to generate Async interface for " + result.getKey(), e.getCause() );
+                    if ( failOnError )
+                    {
+                        throw new MojoExecutionException( "Failed to generate Async interface", e.getCause() );
+                    }
                 }
             }
         }
+        finally
+        {
+            executor.shutdownNow();
+            closeProjectClassLoader();
+        }
     }
 
     /**
      * @param sourceRoot the base directory to scan for RPC services
-     * @return true if some file have been generated
-     * @throws Exception generation failure
+     * @param executor the executor to generate Async interfaces with
+     * @param results the generation of each stale service, by source file
+     * @throws Exception scan failure
      */
-    private boolean scanAndGenerateAsync( File sourceRoot, JavaDocBuilder builder )
+    private void scanAndGenerateAsync( final File sourceRoot, ExecutorService executor,
+                                       Map<String, Future<?>> results )
         throws Exception
     {
         Scanner scanner = buildContext.newScanner( sourceRoot );
         scanner.setIncludes( new String[] { servicePattern } );
         scanner.scan();
-        String[] sources = scanner.getIncludedFiles();
-        if ( sources.length == 0 )
-        {
-            return false;
-        }
-        boolean fileGenerated = false;
-        for ( String source : sources )
+        for ( final String source : scanner.getIncludedFiles() )
         {
             File sourceFile = new File( sourceRoot, source );
             File targetFile = getTargetFile( source );
-            if ( !force && buildContext.isUptodate( targetFile, sourceFile ) )
+            // outside of the IDE, the fingerprint decides, as it also covers the interfaces the service extends
+            if ( !force && buildContext.isIncremental() && buildContext.isUptodate( targetFile, sourceFile ) )
             {
                 getLog().debug( targetFile.getAbsolutePath() + " is up to date. Generation skipped" );
-                // up to date, but still need to report generated-sources directory as sourceRoot
-                fileGenerated = true;
                 continue;
             }
+            results.put( sourceFile.getPath(), executor.submit( new Callable<Void>()
+            {
+                public Void call()
+                    throws Exception
+                {
+                    generateAsync( sourceRoot, source );
+                    return null;
+                }
+            } ) );
+        }
+    }
+
+    /**
+     * Generate the Async interface of a service, unless the service, the interfaces it extends and the generated
+     * interface are unchanged since the last build.
+     *
+     * @param sourceRoot the base directory of the service
+     * @param source the service source file, relative to the source root
+     * @throws Exception generation failure
+     */
+    private void generateAsync( File sourceRoot, String source )
+        throws Exception
+    {
+        File sourceFile = new File( sourceRoot, source );
+        File targetFile = getTargetFile( source );
+
+        // the source may only have been touched, by a checkout or a clean
+        File fingerprintFile = new File( fingerprintDirectory, source + ".properties" );
+        Fingerprint previous = force ? null : Fingerprint.load( fingerprintFile );
+        if ( previous != null )
+        {
+            previous.setRoots( getProject().getBasedir(), null );
+            List<File> inputs = new ArrayList<File>();
+            for ( String key : previous.getKeys() )
+            {
+                if ( !OPTIONS.equals( key ) )
+                {
+                    inputs.add( previous.getFile( key ) );
+                }
+            }
+            if ( getFingerprint( inputs, targetFile, previous ).getDifference( previous ) == null )
+            {
+                getLog().debug( sourceFile.getAbsolutePath() + " is unchanged. Generation skipped" );
+                return;
+            }
+        }
+
+        String className = getTopLevelClassName( source );
+        JavaClass clazz = getJavaDocBuilder().getClassByName( className );
+        if ( isEligibleForGeneration( clazz ) )
+        {
+            getLog().debug( "Generating async interface for service " + className );
+            targetFile.getParentFile().mkdirs();
+            generateAsync( clazz, targetFile );
+        }
+        try
+        {
+            getFingerprint( getSourceFiles( clazz ), targetFile, previous ).store( fingerprintFile );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Failed to store the fingerprint of " + sourceFile + " : " + e.getMessage() );
+        }
+    }
 
-            String className = getTopLevelClassName( source );
-            JavaClass clazz = builder.getClassByName( className );
-            if ( isEligibleForGeneration( clazz ) )
+    /**
+     * The fingerprint of a service, of the generated Async interface and of the generation options.
+     *
+     * @param sourceFiles the service and the interfaces it extends
+     * @param targetFile the Async interface, fingerprinted as missing if the service isn't eligible for generation
+     * @param previous the previous fingerprint to reuse hashes from, may be <code>null</code>
+     */
+    private Fingerprint getFingerprint( Collection<File> sourceFiles, File targetFile, Fingerprint previous )
+        throws IOException
+    {
+        Fingerprint fingerprint = new Fingerprint( previous ).setRoots( getProject().getBasedir(), null );
+        fingerprint.addValue( OPTIONS, returnRequest + ";" + rpcPattern + ";" + encoding );
+        for ( File sourceFile : sourceFiles )
+        {
+            fingerprint.addFile( sourceFile );
+        }
+        fingerprint.addFile( targetFile );
+        return fingerprint;
+    }
+
+    /**
+     * The source files the Async interface is generated from: the service and the interfaces it extends, as the
+     * methods of <code>clazz.getMethods( true )</code> come from them. Binary interfaces from dependencies are not
+     * tracked.
+     */
+    private Set<File> getSourceFiles( JavaClass clazz )
+    {
+        Set<File> sourceFiles = new LinkedHashSet<File>();
+        addSourceFiles( clazz, sourceFiles );
+        return sourceFiles;
+    }
+
+    private void addSourceFiles( JavaClass clazz, Set<File> sourceFiles )
+    {
+        if ( clazz == null || clazz.getSource() == null || clazz.getSource().getURL() == null )
+        {
+            return;
+        }
+        File file = FileUtils.toFile( clazz.getSource().getURL() );
+        if ( file != null && sourceFiles.add( file.getAbsoluteFile() ) )
+        {
+            for ( JavaClass parent : clazz.getImplementedInterfaces() )
             {
-                getLog().debug( "Generating async interface for service " + className );
-                targetFile.getParentFile().mkdirs();
-                generateAsync( clazz, targetFile );
-                fileGenerated = true;
+                addSourceFiles( parent, sourceFiles );
             }
         }
-        return fileGenerated;
     }
 
     private File getTargetFile( String source )
@@ -221,8 +387,8 @@ public class GenerateAsyncMojo
     private void generateAsync( JavaClass clazz, File targetFile )
         throws IOException
     {
-        PrintWriter writer = new PrintWriter( new BufferedWriter(
-            new OutputStreamWriter( buildContext.newFileOutputStream( targetFile ), encoding ) ) );
+        StringWriter buffer = new StringWriter();
+        PrintWriter writer = new PrintWriter( buffer );
 
         boolean hasRemoteServiceRelativePath = hasRemoteServiceRelativePath(clazz);
 
@@ -347,6 +513,44 @@ public class GenerateAsyncMojo
 
         writer.println( "}" );
         writer.close();
+        write( targetFile, buffer.toString().getBytes( encoding ) );
+    }
+
+    /**
+     * Write a generated file, unless it already has this content, so that its timestamp doesn't trigger a recompile.
+     */
+    private void write( File targetFile, byte[] content )
+        throws IOException
+    {
+        if ( targetFile.isFile() && targetFile.length() == content.length )
+        {
+            InputStream in = new FileInputStream( targetFile );
+            try
+            {
+                if ( Arrays.equals( IOUtil.toByteArray( in ), content ) )
+                {
+                    getLog().debug( targetFile.getAbsolutePath() + " is unchanged" );
+                    return;
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        OutputStream out;
+        synchronized ( buildContext )
+        {
+            out = buildContext.newFileOutputStream( targetFile );
+        }
+        try
+        {
+            out.write( content );
+        }
+        finally
+        {
+            out.close();
+        }
     }
 
     private boolean isEligibleForGeneration( JavaClass javaClass )
@@ -354,19 +558,58 @@ public class GenerateAsyncMojo
         return javaClass.isInterface() && javaClass.isPublic() && javaClass.isA( REMOTE_SERVICE_INTERFACE );
     }
 
-    private JavaDocBuilder createJavaDocBuilder()
+    /**
+     * The QDox model of the current thread, created on first use. Source folders are only registered: a source file is
+     * parsed the first time one of its classes is looked up, i.e. the stale services and the types they reference.
+     */
+    private JavaDocBuilder getJavaDocBuilder()
         throws MojoExecutionException
     {
-        JavaDocBuilder builder = new JavaDocBuilder();
-        builder.setEncoding( encoding );
-        builder.getClassLibrary().addClassLoader( getProjectClassLoader() );
-        for ( String sourceRoot : getProject().getCompileSourceRoots() )
+        JavaDocBuilder builder = builders.get();
+        if ( builder == null )
         {
-            builder.getClassLibrary().addSourceFolder( new File( sourceRoot ) );
+            builder = new JavaDocBuilder();
+            builder.setEncoding( encoding );
+            builder.getClassLibrary().addClassLoader( getSharedProjectClassLoader() );
+            for ( String sourceRoot : getProject().getCompileSourceRoots() )
+            {
+                builder.getClassLibrary().addSourceFolder( new File( sourceRoot ) );
+            }
+            builders.set( builder );
         }
         return builder;
     }
 
+    private synchronized ClassLoader getSharedProjectClassLoader()
+        throws MojoExecutionException
+    {
+        if ( projectClassLoader == null )
+        {
+            projectClassLoader = getProjectClassLoader();
+        }
+        return projectClassLoader;
+    }
+
+    /**
+     * Close the project class loader, which keeps the classpath jars open. URLClassLoader is only Closeable since
+     * Java 7.
+     */
+    private synchronized void closeProjectClassLoader()
+    {
+        if ( projectClassLoader instanceof Closeable )
+        {
+            try
+            {
+                ( (Closeable) projectClassLoader ).close();
+            }
+            catch ( IOException e )
+            {
+                getLog().debug( "Failed to close the project class loader : " + e.getMessage() );
+            }
+        }
+        projectClassLoader = null;
+    }
+
     private String getTopLevelClassName( String sourceFile )
     {
         String className = sourceFile.substring( 0, sourceFile.length() - 5 ); // strip ".java"
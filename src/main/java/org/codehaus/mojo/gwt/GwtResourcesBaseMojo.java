@@ -22,13 +22,19 @@ package org.codehaus.mojo.gwt;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.mojo.gwt.utils.DefaultGwtModuleReader;
+import org.codehaus.mojo.gwt.utils.FileSynchronizer;
 import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
 import org.codehaus.plexus.util.DirectoryScanner;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * Collect GWT java source code and module descriptor to be added as resources. Common
@@ -56,6 +62,23 @@ abstract class GwtResourcesBaseMojo
             this.fileRelativeName = fileRelativeName;
         }
 
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( !( obj instanceof ResourceFile ) )
+            {
+                return false;
+            }
+            ResourceFile other = (ResourceFile) obj;
+            return basedir.equals( other.basedir ) && fileRelativeName.equals( other.fileRelativeName );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * basedir.hashCode() + fileRelativeName.hashCode();
+        }
+
     }
 
     /**
@@ -76,6 +99,7 @@ abstract class GwtResourcesBaseMojo
             {
                 sourcesAndResourcesPath.add( resource.getDirectory() );
             }
+            Map<File, SortedMap<String, String>> index = indexSourceRoots( sourcesAndResourcesPath );
 
             for ( String name : getModules() )
             {
@@ -87,26 +111,22 @@ abstract class GwtResourcesBaseMojo
                 for ( String source : module.getSources() )
                 {
                     getLog().debug( "GWT sources from " + name + '.' + source );
-                    Collection<ResourceFile> files = getAsResources( module, source, sourcesAndResourcesPath,
-                                                                     "**/*.java" );
+                    Collection<ResourceFile> files = getAsResources( module, source, index, ".java" );
                     sourcesAndResources.addAll( files );
                     count += files.size();
 
-                    Collection<ResourceFile> uifiles = getAsResources( module, source, sourcesAndResourcesPath,
-                            "**/*.ui.xml" );
+                    Collection<ResourceFile> uifiles = getAsResources( module, source, index, ".ui.xml" );
                     sourcesAndResources.addAll( uifiles );
                     count += uifiles.size();
                 }
                 for ( String source : module.getSuperSources() )
                 {
                     getLog().debug( "GWT super-sources from " + name + '.' + source );
-                    Collection<ResourceFile> files = getAsResources( module, source, sourcesAndResourcesPath,
-                                                                     "**/*.java" );
+                    Collection<ResourceFile> files = getAsResources( module, source, index, ".java" );
                     sourcesAndResources.addAll( files );
                     count += files.size();
 
-                    Collection<ResourceFile> uifiles = getAsResources( module, source, sourcesAndResourcesPath,
-                            "**/*.ui.xml" );
+                    Collection<ResourceFile> uifiles = getAsResources( module, source, index, ".ui.xml" );
                     sourcesAndResources.addAll( uifiles );
                     count += uifiles.size();
                 }
@@ -121,16 +141,49 @@ abstract class GwtResourcesBaseMojo
     }
 
     /**
-     * @param source
-     * @param include TODO
-     * @param name
+     * Copy resource files to a directory, skipping the files that didn't change since the last copy and deleting the
+     * files copied before whose source is gone.
+     *
+     * @param files the files to copy
+     * @param targetDirectory where to copy the files
+     * @param stateFile the file to persist the copy state to
+     * @param compareContent whether to also skip files whose timestamp changed but not their content
+     * @param threads the number of files to copy concurrently
+     * @throws org.apache.maven.plugin.MojoExecutionException if a file can't be copied
      */
-    private Collection<ResourceFile> getAsResources( GwtModule module, String source, Set<String> paths, String include )
+    protected void copyResourceFiles( Collection<ResourceFile> files, File targetDirectory, File stateFile,
+                                      boolean compareContent, int threads )
+        throws MojoExecutionException
     {
-        String pattern = module.getPackage().replace( '.', '/' );
-
-        Set<ResourceFile> sourcesAndResources = new HashSet<ResourceFile>();
+        Map<String, File> sources = new LinkedHashMap<String, File>();
+        for ( ResourceFile file : files )
+        {
+            sources.put( file.fileRelativeName, new File( file.basedir, file.fileRelativeName ) );
+        }
+        FileSynchronizer synchronizer =
+            new FileSynchronizer( stateFile ).setCompareContent( compareContent ).setThreads( threads );
+        try
+        {
+            synchronizer.synchronize( sources, targetDirectory );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to copy GWT sources to " + targetDirectory, e );
+        }
+        getLog().info( "Copied " + synchronizer.getCopied() + " of " + sources.size() + " GWT source files to "
+            + targetDirectory + ( synchronizer.getDeleted() > 0 ? ", deleted " + synchronizer.getDeleted() : "" ) );
+    }
 
+    /**
+     * Walk each source root once, indexing the files GWT modules may contain by their path relative to the root,
+     * with '/' as separator, so that module sources can be looked up by package without scanning the tree again.
+     *
+     * @param paths the source roots
+     * @return the relative paths (to the native path) of the java and ui.xml files, by source root
+     */
+    private Map<File, SortedMap<String, String>> indexSourceRoots( Set<String> paths )
+    {
+        Map<File, SortedMap<String, String>> index = new LinkedHashMap<File, SortedMap<String, String>>();
         for ( String path : paths )
         {
             File basedir = new File( path );
@@ -141,18 +194,63 @@ abstract class GwtResourcesBaseMojo
             }
             DirectoryScanner scanner = new DirectoryScanner();
             scanner.setBasedir( basedir );
-            scanner.setIncludes( new String[] { pattern + '/' + source + '/' + include } );
+            scanner.setIncludes( new String[] { "**/*.java", "**/*.ui.xml" } );
             scanner.scan();
-            String[] includedFiles = scanner.getIncludedFiles();
-            for ( String included : includedFiles )
+            SortedMap<String, String> files = new TreeMap<String, String>();
+            for ( String included : scanner.getIncludedFiles() )
             {
-                sourcesAndResources.add( new ResourceFile( basedir, included ) );
+                files.put( included.replace( File.separatorChar, '/' ), included );
+            }
+            index.put( basedir, files );
+        }
+        return index;
+    }
+
+    /**
+     * @param module the GWT module
+     * @param source the (super-)source path, relative to the module package
+     * @param index the indexed source roots
+     * @param extension the extension of the files to collect
+     */
+    private Collection<ResourceFile> getAsResources( GwtModule module, String source,
+                                                     Map<File, SortedMap<String, String>> index, String extension )
+    {
+        String prefix = normalize( module.getPackage().replace( '.', '/' ) + '/' + source + '/' );
+
+        Set<ResourceFile> sourcesAndResources = new HashSet<ResourceFile>();
+
+        for ( Map.Entry<File, SortedMap<String, String>> root : index.entrySet() )
+        {
+            SortedMap<String, String> files =
+                prefix.length() > 0 ? root.getValue().subMap( prefix, prefix + Character.MAX_VALUE ) : root.getValue();
+            for ( Map.Entry<String, String> file : files.entrySet() )
+            {
+                if ( file.getKey().endsWith( extension ) )
+                {
+                    sourcesAndResources.add( new ResourceFile( root.getKey(), file.getValue() ) );
+                }
             }
         }
 
         return sourcesAndResources;
     }
 
+    /**
+     * Remove the empty path segments, as DirectoryScanner patterns did.
+     */
+    private static String normalize( String path )
+    {
+        StringBuilder normalized = new StringBuilder();
+        for ( String segment : path.split( "/" ) )
+        {
+            if ( segment.length() > 0 )
+            {
+                normalized.append( segment ).append( '/' );
+            }
+        }
+        return normalized.toString();
+    }
+
     private ResourceFile getDescriptor( GwtModule module, Set<String> paths )
         throws MojoExecutionException
     {
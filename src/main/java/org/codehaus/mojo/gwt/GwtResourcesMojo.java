@@ -20,15 +20,12 @@ package org.codehaus.mojo.gwt;
  */
 
 import java.io.File;
-import java.io.IOException;
-import java.util.Collection;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.codehaus.plexus.util.FileUtils;
 
 /**
  * Copy GWT java source code and module descriptor as resources in the build
@@ -45,6 +42,35 @@ public class GwtResourcesMojo
     @Parameter(defaultValue = "${project.build.outputDirectory}", required = true, readonly = true)
     private File outputDirectory;
 
+    /**
+     * File recording the copied sources, to only copy the modified ones on next build.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-resources.properties", readonly = true)
+    private File stateFile;
+
+    /**
+     * Only copy a source file whose timestamp changed if its content changed too. This avoids copying all sources
+     * again after a <code>git checkout</code> or a cache restore, at the cost of reading modified files.
+     * <p>
+     * Can be set from command line using '-Dgwt.resources.compareContent=true'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.resources.compareContent")
+    private boolean compareContent;
+
+    /**
+     * Number of files to copy concurrently, which pays off on network file systems.
+     * <p>
+     * Can be set from command line using '-Dgwt.resources.threads=n'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "1", property = "gwt.resources.threads")
+    private int copyThreads;
+
     /**
      * {@inheritDoc}
      *
@@ -55,28 +81,6 @@ public class GwtResourcesMojo
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
-        Collection<ResourceFile> files = getAllResourceFiles();
-        for ( ResourceFile file : files )
-        {
-            File f = new File( file.basedir, file.fileRelativeName );
-            File target = new File( outputDirectory, file.fileRelativeName );
-            try
-            {
-                getLog().debug( "copy " + f + " to outputDirectory" );
-                if ( !target.getParentFile().exists() )
-                {
-                    if ( !target.getParentFile().mkdirs() )
-                    {
-                        throw new MojoExecutionException( "Failed to create destination directory "
-                            + target.getParentFile() );
-                    }
-                }
-                FileUtils.copyFile( f, target );
-            }
-            catch ( IOException e )
-            {
-                throw new MojoExecutionException( "Failed to copy GWT source " + f, e );
-            }
-        }
+        copyResourceFiles( getAllResourceFiles(), outputDirectory, stateFile, compareContent, copyThreads );
     }
 }
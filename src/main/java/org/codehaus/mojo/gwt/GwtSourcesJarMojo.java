@@ -20,12 +20,17 @@ package org.codehaus.mojo.gwt;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -33,12 +38,16 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.mojo.gwt.utils.JarAppender;
 import org.codehaus.plexus.archiver.jar.JarArchiver;
 
 
 /**
  * Add GWT java source code and module descriptor as resources to project jar. Alternative
  * to gwt:resources for better Eclipse projects synchronization.
+ * <p>
+ * When this goal is bound to a phase before <code>package</code>, like <code>process-resources</code>, sources are
+ * copied to the classes directory instead, for the jar plugin to package them without a second archive pass.
  *
  * @author <a href="mailto:vlads@pyx4j.com">Vlad Skarzhevskyy</a>
  * @version $Id: $Id
@@ -47,6 +56,12 @@ import org.codehaus.plexus.archiver.jar.JarArchiver;
 public class GwtSourcesJarMojo
     extends GwtResourcesBaseMojo
 {
+    /** Phases of the default lifecycle that run before the jar is packaged */
+    private static final List<String> BEFORE_PACKAGE =
+        Arrays.asList( "validate", "initialize", "generate-sources", "process-sources", "generate-resources",
+                       "process-resources", "compile", "process-classes", "generate-test-sources",
+                       "process-test-sources", "generate-test-resources", "process-test-resources", "test-compile",
+                       "process-test-classes", "test", "prepare-package" );
 
     /**
      * Name of the generated JAR.
@@ -57,6 +72,33 @@ public class GwtSourcesJarMojo
     @Parameter(defaultValue = "${project.build.directory}", required = true, readonly = true)
     private File outputDirectory;
 
+    /**
+     * Directory the sources are copied to when this goal is bound to a phase before <code>package</code>.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true, readonly = true)
+    private File classesDirectory;
+
+    /**
+     * File the state of the sources copied to the classes directory is persisted to.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-source-jar.properties", readonly = true)
+    private File stateFile;
+
+    /**
+     * Add the sources to the existing jar, copying its entries as is rather than recompressing them. The
+     * <code>archive</code> configuration is ignored when streaming, so this is only enabled on request.
+     * <p>
+     * Can be set from command line using '-Dgwt.sourceJar.streaming=...'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.sourceJar.streaming")
+    private boolean streaming;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     /**
      * The Jar archiver.
      */
@@ -80,7 +122,31 @@ public class GwtSourcesJarMojo
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
+        if ( isBeforePackage() )
+        {
+            getLog().info( "Bound before the package phase, adding GWT sources to " + classesDirectory );
+            copyResourceFiles( getAllResourceFiles(), classesDirectory, stateFile, false, 1 );
+            return;
+        }
         File jarFile = new File( outputDirectory, finalName + ".jar" );
+        if ( streaming && jarFile.exists() )
+        {
+            Map<String, File> sources = new LinkedHashMap<String, File>();
+            for ( ResourceFile file : getAllResourceFiles() )
+            {
+                sources.put( file.fileRelativeName, new File( file.basedir, file.fileRelativeName ) );
+            }
+            try
+            {
+                new JarAppender( jarFile ).append( sources );
+                return;
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Failed to add GWT sources to " + jarFile + ", rebuilding it: " + e.getMessage() );
+            }
+        }
+
         File origJarFile = new File( outputDirectory, finalName + "-b4gwt.jar" );
         if ( origJarFile.exists() )
         {
@@ -128,4 +194,8 @@ public class GwtSourcesJarMojo
 
     }
 
+    private boolean isBeforePackage()
+    {
+        return mojoExecution != null && BEFORE_PACKAGE.contains( mojoExecution.getLifecyclePhase() );
+    }
 }
@@ -20,8 +20,10 @@ package org.codehaus.mojo.gwt.reports;
  */
 
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.doxia.sink.Sink;
@@ -54,6 +56,10 @@ public class CompilationReportRenderer
     private final I18N i18n;
     
     private final Locale locale;
+
+    private final List<SoycSizeIndex> sizeIndexes;
+
+    private final Map<String, SoycSizeIndex> baselines;
     
     /**
      * <p>Constructor for CompilationReportRenderer.</p>
@@ -70,6 +76,30 @@ public class CompilationReportRenderer
     public CompilationReportRenderer( final Sink sink, final List<GwtModule> gwtModules, Log log,
                                       boolean reportsAvailable, String compilerReportsPath, boolean compilerReport,
                                       I18N i18n, Locale locale )
+    {
+        this( sink, gwtModules, log, reportsAvailable, compilerReportsPath, compilerReport, i18n, locale,
+              Collections.<SoycSizeIndex>emptyList(), Collections.<String, SoycSizeIndex>emptyMap() );
+    }
+
+    /**
+     * <p>Constructor for CompilationReportRenderer, with the code size of the modules.</p>
+     *
+     * @param sink a {@link org.apache.maven.doxia.sink.Sink} object.
+     * @param gwtModules a {@link java.util.List} object.
+     * @param log a {@link org.apache.maven.plugin.logging.Log} object.
+     * @param reportsAvailable a boolean.
+     * @param compilerReportsPath a {@link java.lang.String} object.
+     * @param compilerReport a boolean.
+     * @param i18n a {@link org.codehaus.plexus.i18n.I18N} object.
+     * @param locale a {@link java.util.Locale} object.
+     * @param sizeIndexes the code size index of each module
+     * @param baselines the size baseline of the modules, by module output name
+     * @since 2.8.0
+     */
+    public CompilationReportRenderer( final Sink sink, final List<GwtModule> gwtModules, Log log,
+                                      boolean reportsAvailable, String compilerReportsPath, boolean compilerReport,
+                                      I18N i18n, Locale locale, List<SoycSizeIndex> sizeIndexes,
+                                      Map<String, SoycSizeIndex> baselines )
     {
         super( sink );
 
@@ -80,6 +110,8 @@ public class CompilationReportRenderer
         this.compilerReport = compilerReport;
         this.i18n = i18n;
         this.locale = locale;
+        this.sizeIndexes = sizeIndexes;
+        this.baselines = baselines;
     }
 
     /** {@inheritDoc} */
@@ -143,8 +175,56 @@ public class CompilationReportRenderer
             sink.list_();
         }
         endSection();
+        for ( SoycSizeIndex index : sizeIndexes )
+        {
+            renderSizes( index, baselines.get( index.getModule() ) );
+        }
         log.debug( "end renderBody" );
     }
+
+    private void renderSizes( SoycSizeIndex index, SoycSizeIndex baseline )
+    {
+        startSection( getI18nString( locale, "compiler.report.size.title" ) + " " + index.getModule() );
+
+        startTable();
+        tableHeader( new String[] { "", getI18nString( locale, "compiler.report.size.bytes" ),
+            getI18nString( locale, "compiler.report.size.baseline" ) } );
+        tableRow( new String[] { getI18nString( locale, "compiler.report.size.initial" ),
+            String.valueOf( index.getInitialSize() ),
+            baseline != null ? String.valueOf( baseline.getInitialSize() ) : "" } );
+        tableRow( new String[] { getI18nString( locale, "compiler.report.size.total" ),
+            String.valueOf( index.getTotalSize() ), baseline != null ? String.valueOf( baseline.getTotalSize() ) : "" } );
+        tableRow( new String[] { getI18nString( locale, "compiler.report.size.permutation" ),
+            index.getPermutation() + " / " + index.getPermutationCount(), "" } );
+        endTable();
+
+        startTable();
+        tableHeader( new String[] { getI18nString( locale, "compiler.report.size.fragment" ),
+            getI18nString( locale, "compiler.report.size.bytes" ),
+            getI18nString( locale, "compiler.report.size.splitpoint" ) } );
+        for ( Map.Entry<Integer, Long> fragment : index.getFragmentSizes().entrySet() )
+        {
+            String splitPoint = index.getSplitPoints().get( fragment.getKey() );
+            tableRow( new String[] { fragment.getKey() + ( index.isInitial( fragment.getKey() ) ? " *" : "" ),
+                String.valueOf( fragment.getValue() ), splitPoint != null ? splitPoint : "" } );
+        }
+        endTable();
+
+        renderTopSizes( getI18nString( locale, "compiler.report.size.packages" ), index.getTopPackages() );
+        renderTopSizes( getI18nString( locale, "compiler.report.size.classes" ), index.getTopClasses() );
+        endSection();
+    }
+
+    private void renderTopSizes( String title, Map<String, Long> sizes )
+    {
+        startTable();
+        tableHeader( new String[] { title, getI18nString( locale, "compiler.report.size.bytes" ) } );
+        for ( Map.Entry<String, Long> size : sizes.entrySet() )
+        {
+            tableRow( new String[] { size.getKey(), String.valueOf( size.getValue() ) } );
+        }
+        endTable();
+    }
     
     /**
      * <p>getI18nString.</p>
@@ -22,8 +22,12 @@ package org.codehaus.mojo.gwt.reports;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.maven.doxia.siterenderer.Renderer;
 import org.apache.maven.plugins.annotations.Component;
@@ -35,7 +39,9 @@ import org.apache.maven.reporting.MavenReportException;
 import org.codehaus.mojo.gwt.ClasspathBuilder;
 import org.codehaus.mojo.gwt.GwtModule;
 import org.codehaus.mojo.gwt.GwtModuleReader;
+import org.codehaus.mojo.gwt.utils.ClasspathResourceIndex;
 import org.codehaus.mojo.gwt.utils.DefaultGwtModuleReader;
+import org.codehaus.mojo.gwt.utils.GwtModuleCache;
 import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
 import org.codehaus.plexus.i18n.I18N;
 import org.codehaus.plexus.util.DirectoryScanner;
@@ -97,11 +103,81 @@ public class CompileReport
     @Component
     protected ClasspathBuilder classpathBuilder;
 
+    @Component
+    protected GwtModuleCache moduleCache;
+
+    @Component
+    protected ClasspathResourceIndex resourceIndex;
+
     /**
      * @since 2.1.0-1
      */
     @Parameter(defaultValue = "false", property = "gwt.compilerReport.skip")
     private boolean skip;    
+
+    /**
+     * The directory into which the code size index of each module is written, built from the raw SOYC files of the
+     * compiler.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-size-index")
+    private File sizeIndexDirectory;
+
+    /**
+     * The directory of the code size indexes to compare the compiled modules with. A module is compared when this
+     * directory has an index for it, see <code>updateSizeBaseline</code>.
+     * <p>
+     * Can be set from command line using '-Dgwt.compilerReport.sizeBaseline=...'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${basedir}/src/gwt-size-baseline", property = "gwt.compilerReport.sizeBaseline")
+    private File sizeBaselineDirectory;
+
+    /**
+     * Growth of the initial download of a module over its baseline, in percent, above which it is reported as a size
+     * regression.
+     * <p>
+     * Can be set from command line using '-Dgwt.compilerReport.sizeThreshold=...'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "5", property = "gwt.compilerReport.sizeThreshold")
+    private double sizeThreshold;
+
+    /**
+     * Fail the build on a size regression, rather than just warn.
+     * <p>
+     * Can be set from command line using '-Dgwt.compilerReport.failOnSizeRegression=true'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.compilerReport.failOnSizeRegression")
+    private boolean failOnSizeRegression;
+
+    /**
+     * Write the code size index of the compiled modules to <code>sizeBaselineDirectory</code>, to be the baseline
+     * of later compilations.
+     * <p>
+     * Can be set from command line using '-Dgwt.compilerReport.updateSizeBaseline=true'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.compilerReport.updateSizeBaseline")
+    private boolean updateSizeBaseline;
+
+    /**
+     * The number of classes and packages listed in the code size index, largest first.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "20", property = "gwt.compilerReport.topSizes")
+    private int topSizes;
     
     /**
      * Internationalization component.
@@ -249,10 +325,14 @@ public class CompileReport
             }
         }
         
+        List<SoycSizeIndex> sizeIndexes = indexSizes();
+        Map<String, SoycSizeIndex> baselines = compareSizes( sizeIndexes );
+
         try
         {
 
-            GwtModuleReader gwtModuleReader = new DefaultGwtModuleReader( this.project, getLog(), classpathBuilder );
+            GwtModuleReader gwtModuleReader =
+                new DefaultGwtModuleReader( this.project, getLog(), classpathBuilder, moduleCache, resourceIndex );
 
             List<GwtModule> gwtModules = new ArrayList<GwtModule>();
             List<String> moduleNames = gwtModuleReader.getGwtModules();
@@ -265,7 +345,9 @@ public class CompileReport
                                                                                                  getLog(),
                                                                                                  compileReports,
                                                                                                  "gwtCompileReports",
-                                                                                                 true, i18n, locale );
+                                                                                                 true, i18n, locale,
+                                                                                                 sizeIndexes,
+                                                                                                 baselines );
             compilationReportRenderer.render();
         }
         catch ( GwtModuleReaderException e )
@@ -275,6 +357,100 @@ public class CompileReport
 
     }
 
+    /**
+     * Index the raw SOYC files of each compiled module.
+     *
+     * @return the size index of each module
+     * @throws MavenReportException if the files can't be read
+     */
+    private List<SoycSizeIndex> indexSizes()
+        throws MavenReportException
+    {
+        List<SoycSizeIndex> indexes = new ArrayList<SoycSizeIndex>();
+        if ( !extra.isDirectory() )
+        {
+            return indexes;
+        }
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( extra );
+        scanner.setIncludes( new String[] { "*/soycReport/stories*.xml.gz" } );
+        scanner.scan();
+        Set<String> modules = new TreeSet<String>();
+        for ( String path : scanner.getIncludedFiles() )
+        {
+            modules.add( path.substring( 0, path.indexOf( File.separatorChar ) ) );
+        }
+        for ( String module : modules )
+        {
+            try
+            {
+                SoycSizeIndex index = SoycSizeIndex.parse( module, new File( extra, module + "/soycReport" ), topSizes );
+                if ( index != null )
+                {
+                    index.store( new File( sizeIndexDirectory, module + ".properties" ) );
+                    indexes.add( index );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new MavenReportException( e.getMessage(), e );
+            }
+        }
+        return indexes;
+    }
 
-
+    /**
+     * Compare the initial download of each module with its baseline, or update the baselines.
+     *
+     * @param indexes the size index of each module
+     * @return the baseline of each module compared, by module
+     * @throws MavenReportException on a size regression with <code>failOnSizeRegression</code>, or if the baselines
+     *             can't be read or written
+     */
+    private Map<String, SoycSizeIndex> compareSizes( List<SoycSizeIndex> indexes )
+        throws MavenReportException
+    {
+        Map<String, SoycSizeIndex> baselines = new LinkedHashMap<String, SoycSizeIndex>();
+        List<String> regressions = new ArrayList<String>();
+        for ( SoycSizeIndex index : indexes )
+        {
+            File baselineFile = new File( sizeBaselineDirectory, index.getModule() + ".properties" );
+            try
+            {
+                if ( updateSizeBaseline )
+                {
+                    getLog().info( "Updating the size baseline of " + index.getModule() + " in " + baselineFile );
+                    index.store( baselineFile );
+                    continue;
+                }
+                if ( !baselineFile.isFile() )
+                {
+                    getLog().debug( "No size baseline for " + index.getModule() + " in " + baselineFile );
+                    continue;
+                }
+                SoycSizeIndex baseline = SoycSizeIndex.load( baselineFile );
+                baselines.put( index.getModule(), baseline );
+                long before = baseline.getInitialSize();
+                long after = index.getInitialSize();
+                if ( before > 0 && ( after - before ) * 100.0 / before > sizeThreshold )
+                {
+                    regressions.add( "Initial download of " + index.getModule() + " grew from " + before + " to "
+                        + after + " bytes, more than " + sizeThreshold + "%" );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new MavenReportException( e.getMessage(), e );
+            }
+        }
+        for ( String regression : regressions )
+        {
+            getLog().warn( regression );
+        }
+        if ( failOnSizeRegression && !regressions.isEmpty() )
+        {
+            throw new MavenReportException( regressions.get( 0 ) );
+        }
+        return baselines;
+    }
 }
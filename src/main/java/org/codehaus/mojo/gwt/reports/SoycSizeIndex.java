@@ -0,0 +1,565 @@
+package org.codehaus.mojo.gwt.reports;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Compact size index of a compiled module, built from the raw SOYC files written by the GWT compiler with the
+ * <code>-compileReport</code> option: <code>stories&lt;permutation&gt;.xml.gz</code> for the size of each fragment
+ * and of each class member, and <code>splitPoints&lt;permutation&gt;.xml.gz</code> for the split points of each
+ * fragment and the initial load sequence.
+ * <p>
+ * The index describes the permutation with the largest initial download, that is the initial fragment and the
+ * fragments of the initial load sequence. It can be stored as a properties file, to be compared with later
+ * compilations.
+ *
+ * @since 2.8.0
+ */
+public class SoycSizeIndex
+{
+    private static final String STORIES = "stories";
+
+    private static final String SPLIT_POINTS = "splitPoints";
+
+    private static final String XML_GZ = ".xml.gz";
+
+    private static final String DEFAULT_PACKAGE = "(default)";
+
+    private final String module;
+
+    private int permutation = -1;
+
+    private int permutationCount;
+
+    private long initialSize;
+
+    private long totalSize;
+
+    private final SortedMap<Integer, Long> fragments = new TreeMap<Integer, Long>();
+
+    private final SortedMap<Integer, String> splitPoints = new TreeMap<Integer, String>();
+
+    private final Set<Integer> initialSequence = new LinkedHashSet<Integer>();
+
+    private Map<String, Long> topClasses = new LinkedHashMap<String, Long>();
+
+    private Map<String, Long> topPackages = new LinkedHashMap<String, Long>();
+
+    /**
+     * <p>Constructor for SoycSizeIndex.</p>
+     *
+     * @param module the module output name
+     */
+    public SoycSizeIndex( String module )
+    {
+        this.module = module;
+    }
+
+    /**
+     * Index the SOYC files of a module.
+     *
+     * @param module the module output name
+     * @param soycReport the <code>soycReport</code> directory of the module
+     * @param top the number of classes and packages to keep
+     * @return the index of the permutation with the largest initial download, or <code>null</code> if the directory
+     *         has no SOYC files
+     * @throws java.io.IOException if the files can't be read
+     */
+    public static SoycSizeIndex parse( String module, File soycReport, int top )
+        throws IOException
+    {
+        File[] files = soycReport.listFiles();
+        if ( files == null )
+        {
+            return null;
+        }
+        SoycSizeIndex worst = null;
+        int count = 0;
+        for ( File file : files )
+        {
+            String name = file.getName();
+            if ( !name.startsWith( STORIES ) || !name.endsWith( XML_GZ ) )
+            {
+                continue;
+            }
+            int permutation;
+            try
+            {
+                permutation = Integer.parseInt( name.substring( STORIES.length(), name.length() - XML_GZ.length() ) );
+            }
+            catch ( NumberFormatException e )
+            {
+                continue;
+            }
+            count++;
+            SoycSizeIndex index = new SoycSizeIndex( module );
+            index.permutation = permutation;
+            index.parseSplitPoints( new File( soycReport, SPLIT_POINTS + permutation + XML_GZ ) );
+            index.parseStories( file, top );
+            if ( worst == null || index.initialSize > worst.initialSize )
+            {
+                worst = index;
+            }
+        }
+        if ( worst != null )
+        {
+            worst.permutationCount = count;
+        }
+        return worst;
+    }
+
+    private void parseSplitPoints( File file )
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return;
+        }
+        XmlFile xml = new XmlFile( file );
+        try
+        {
+            XMLStreamReader reader = xml.reader;
+            while ( reader.hasNext() )
+            {
+                if ( reader.next() != XMLStreamConstants.START_ELEMENT )
+                {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ( "splitpoint".equals( element ) )
+                {
+                    splitPoints.put( Integer.valueOf( reader.getAttributeValue( null, "id" ) ),
+                                     reader.getAttributeValue( null, "location" ) );
+                }
+                else if ( "splitpointref".equals( element ) )
+                {
+                    initialSequence.add( Integer.valueOf( reader.getAttributeValue( null, "id" ) ) );
+                }
+            }
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IOException( "Failed to parse " + file + ": " + e.getMessage() );
+        }
+        finally
+        {
+            xml.close();
+        }
+    }
+
+    private void parseStories( File file, int top )
+        throws IOException
+    {
+        Map<String, long[]> classes = new HashMap<String, long[]>();
+        XmlFile xml = new XmlFile( file );
+        try
+        {
+            XMLStreamReader reader = xml.reader;
+            while ( reader.hasNext() )
+            {
+                if ( reader.next() != XMLStreamConstants.START_ELEMENT )
+                {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ( "sizemap".equals( element ) )
+                {
+                    int fragment = Integer.parseInt( reader.getAttributeValue( null, "fragment" ) );
+                    long size = Long.parseLong( reader.getAttributeValue( null, "size" ) );
+                    fragments.put( fragment, size );
+                    totalSize += size;
+                    if ( fragment == 0 || initialSequence.contains( fragment ) )
+                    {
+                        initialSize += size;
+                    }
+                }
+                else if ( "size".equals( element ) )
+                {
+                    String className = getClassName( reader.getAttributeValue( null, "type" ),
+                                                     reader.getAttributeValue( null, "ref" ) );
+                    if ( className != null )
+                    {
+                        long[] size = classes.get( className );
+                        if ( size == null )
+                        {
+                            size = new long[1];
+                            classes.put( className, size );
+                        }
+                        size[0] += Long.parseLong( reader.getAttributeValue( null, "size" ) );
+                    }
+                }
+            }
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new IOException( "Failed to parse " + file + ": " + e.getMessage() );
+        }
+        finally
+        {
+            xml.close();
+        }
+
+        Map<String, long[]> packages = new HashMap<String, long[]>();
+        for ( Map.Entry<String, long[]> entry : classes.entrySet() )
+        {
+            String className = entry.getKey();
+            int dot = className.lastIndexOf( '.' );
+            String packageName = dot > 0 ? className.substring( 0, dot ) : DEFAULT_PACKAGE;
+            long[] size = packages.get( packageName );
+            if ( size == null )
+            {
+                size = new long[1];
+                packages.put( packageName, size );
+            }
+            size[0] += entry.getValue()[0];
+        }
+        topClasses = top( classes, top );
+        topPackages = top( packages, top );
+    }
+
+    /**
+     * Get the class a size entry is accounted to: methods and fields are referenced as
+     * <code>package.Class::member</code>, types by their name. Strings and variables are not accounted to a class.
+     */
+    private static String getClassName( String type, String ref )
+    {
+        if ( ref == null )
+        {
+            return null;
+        }
+        if ( "type".equals( type ) )
+        {
+            return ref;
+        }
+        if ( "method".equals( type ) || "field".equals( type ) )
+        {
+            int separator = ref.indexOf( "::" );
+            return separator > 0 ? ref.substring( 0, separator ) : null;
+        }
+        return null;
+    }
+
+    private static Map<String, Long> top( Map<String, long[]> sizes, int top )
+    {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<Map.Entry<String, long[]>>( sizes.entrySet() );
+        Collections.sort( entries, new Comparator<Map.Entry<String, long[]>>()
+        {
+            public int compare( Map.Entry<String, long[]> e1, Map.Entry<String, long[]> e2 )
+            {
+                long s1 = e1.getValue()[0];
+                long s2 = e2.getValue()[0];
+                if ( s1 != s2 )
+                {
+                    return s1 > s2 ? -1 : 1;
+                }
+                return e1.getKey().compareTo( e2.getKey() );
+            }
+        } );
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for ( Map.Entry<String, long[]> entry : entries.subList( 0, Math.min( top, entries.size() ) ) )
+        {
+            result.put( entry.getKey(), entry.getValue()[0] );
+        }
+        return result;
+    }
+
+    /**
+     * Store the index as a properties file.
+     *
+     * @param file the file to write
+     * @throws java.io.IOException if the file can't be written
+     */
+    public void store( File file )
+        throws IOException
+    {
+        Properties properties = new Properties();
+        properties.setProperty( "module", module );
+        properties.setProperty( "permutation", String.valueOf( permutation ) );
+        properties.setProperty( "permutations", String.valueOf( permutationCount ) );
+        properties.setProperty( "initialSize", String.valueOf( initialSize ) );
+        properties.setProperty( "totalSize", String.valueOf( totalSize ) );
+        for ( Map.Entry<Integer, Long> fragment : fragments.entrySet() )
+        {
+            properties.setProperty( "fragment." + fragment.getKey(), String.valueOf( fragment.getValue() ) );
+        }
+        for ( Map.Entry<Integer, String> splitPoint : splitPoints.entrySet() )
+        {
+            properties.setProperty( "splitPoint." + splitPoint.getKey(), splitPoint.getValue() );
+        }
+        StringBuilder sequence = new StringBuilder();
+        for ( Integer fragment : initialSequence )
+        {
+            sequence.append( sequence.length() > 0 ? "," : "" ).append( fragment );
+        }
+        properties.setProperty( "initialSequence", sequence.toString() );
+        for ( Map.Entry<String, Long> entry : topClasses.entrySet() )
+        {
+            properties.setProperty( "class." + entry.getKey(), String.valueOf( entry.getValue() ) );
+        }
+        for ( Map.Entry<String, Long> entry : topPackages.entrySet() )
+        {
+            properties.setProperty( "package." + entry.getKey(), String.valueOf( entry.getValue() ) );
+        }
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            properties.store( out, "GWT code size index of " + module );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Load an index stored by {@link #store(File)}.
+     *
+     * @param file the file to read
+     * @return the index
+     * @throws java.io.IOException if the file can't be read
+     */
+    public static SoycSizeIndex load( File file )
+        throws IOException
+    {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            properties.load( in );
+        }
+        finally
+        {
+            in.close();
+        }
+
+        SoycSizeIndex index = new SoycSizeIndex( properties.getProperty( "module" ) );
+        index.permutation = Integer.parseInt( properties.getProperty( "permutation", "-1" ) );
+        index.permutationCount = Integer.parseInt( properties.getProperty( "permutations", "0" ) );
+        index.initialSize = Long.parseLong( properties.getProperty( "initialSize", "0" ) );
+        index.totalSize = Long.parseLong( properties.getProperty( "totalSize", "0" ) );
+        for ( String sequence : properties.getProperty( "initialSequence", "" ).split( "," ) )
+        {
+            if ( sequence.length() > 0 )
+            {
+                index.initialSequence.add( Integer.valueOf( sequence ) );
+            }
+        }
+        Map<String, long[]> classes = new HashMap<String, long[]>();
+        Map<String, long[]> packages = new HashMap<String, long[]>();
+        for ( String key : properties.stringPropertyNames() )
+        {
+            String value = properties.getProperty( key );
+            if ( key.startsWith( "fragment." ) )
+            {
+                index.fragments.put( Integer.valueOf( key.substring( "fragment.".length() ) ), Long.valueOf( value ) );
+            }
+            else if ( key.startsWith( "splitPoint." ) )
+            {
+                index.splitPoints.put( Integer.valueOf( key.substring( "splitPoint.".length() ) ), value );
+            }
+            else if ( key.startsWith( "class." ) )
+            {
+                classes.put( key.substring( "class.".length() ), new long[] { Long.parseLong( value ) } );
+            }
+            else if ( key.startsWith( "package." ) )
+            {
+                packages.put( key.substring( "package.".length() ), new long[] { Long.parseLong( value ) } );
+            }
+        }
+        index.topClasses = top( classes, classes.size() );
+        index.topPackages = top( packages, packages.size() );
+        return index;
+    }
+
+    /**
+     * <p>getModule.</p>
+     *
+     * @return the module output name
+     */
+    public String getModule()
+    {
+        return module;
+    }
+
+    /**
+     * <p>getPermutation.</p>
+     *
+     * @return the permutation indexed, the one with the largest initial download
+     */
+    public int getPermutation()
+    {
+        return permutation;
+    }
+
+    /**
+     * <p>getPermutationCount.</p>
+     *
+     * @return the number of permutations compiled
+     */
+    public int getPermutationCount()
+    {
+        return permutationCount;
+    }
+
+    /**
+     * <p>getInitialSize.</p>
+     *
+     * @return the size of the initial fragment and of the fragments of the initial load sequence
+     */
+    public long getInitialSize()
+    {
+        return initialSize;
+    }
+
+    /**
+     * <p>getTotalSize.</p>
+     *
+     * @return the size of all fragments
+     */
+    public long getTotalSize()
+    {
+        return totalSize;
+    }
+
+    /**
+     * <p>getFragmentSizes.</p>
+     *
+     * @return the size of each fragment, by fragment number
+     */
+    public SortedMap<Integer, Long> getFragmentSizes()
+    {
+        return Collections.unmodifiableSortedMap( fragments );
+    }
+
+    /**
+     * <p>getSplitPoints.</p>
+     *
+     * @return the location of the split point loading each fragment, by fragment number
+     */
+    public SortedMap<Integer, String> getSplitPoints()
+    {
+        return Collections.unmodifiableSortedMap( splitPoints );
+    }
+
+    /**
+     * <p>isInitial.</p>
+     *
+     * @param fragment a fragment number
+     * @return whether the fragment is part of the initial download
+     */
+    public boolean isInitial( int fragment )
+    {
+        return fragment == 0 || initialSequence.contains( fragment );
+    }
+
+    /**
+     * <p>getTopClasses.</p>
+     *
+     * @return the largest classes and their size, largest first
+     */
+    public Map<String, Long> getTopClasses()
+    {
+        return Collections.unmodifiableMap( topClasses );
+    }
+
+    /**
+     * <p>getTopPackages.</p>
+     *
+     * @return the largest packages and their size, largest first
+     */
+    public Map<String, Long> getTopPackages()
+    {
+        return Collections.unmodifiableMap( topPackages );
+    }
+
+    /**
+     * A gzipped XML file read as a stream, the stories of a large application can be tens of megabytes.
+     */
+    private static class XmlFile
+    {
+        private final InputStream in;
+
+        private final XMLStreamReader reader;
+
+        XmlFile( File file )
+            throws IOException
+        {
+            in = new GZIPInputStream( new BufferedInputStream( new FileInputStream( file ) ), 65536 );
+            try
+            {
+                XMLInputFactory factory = XMLInputFactory.newInstance();
+                factory.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+                reader = factory.createXMLStreamReader( in );
+            }
+            catch ( XMLStreamException e )
+            {
+                in.close();
+                throw new IOException( "Failed to parse " + file + ": " + e.getMessage() );
+            }
+        }
+
+        void close()
+        {
+            try
+            {
+                reader.close();
+            }
+            catch ( XMLStreamException e )
+            {
+                // nothing to do
+            }
+            try
+            {
+                in.close();
+            }
+            catch ( IOException e )
+            {
+                // nothing to do
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.codehaus.mojo.gwt.shell;
  */
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -146,6 +147,58 @@ public abstract class AbstractGwtShellMojo
     @Parameter(property = "gwt.persistentunitcachedir")
     private File persistentunitcachedir;
 
+    /**
+     * Run the GWT tools (compiler, I18NSync, CSS interface generator, tests) in long-lived daemon JVMs reused by the
+     * next goals and modules of the build, rather than forking a new JVM for each execution. Daemon JVMs are keyed by
+     * the JVM, JVM arguments, system properties and classpath used to start them. The tools are forked as usual when a
+     * <code>timeOut</code> is set, or when they can only exit through <code>System.exit</code>, like the CSS interface
+     * generator run for a single file.
+     * <p>
+     * Can be set from command line using '-Dgwt.daemon=true'.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.daemon")
+    private boolean daemon;
+
+    /**
+     * Delay, in seconds, after which an idle daemon JVM exits. <code>0</code> keeps daemon JVMs until the end of the
+     * build.
+     * <p>
+     * Can be set from command line using '-Dgwt.daemon.idleTimeout=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "300", property = "gwt.daemon.idleTimeout")
+    private int daemonIdleTimeout;
+
+    /**
+     * Maximum number of info and debug lines of output per second of the GWT tools logged to the Maven log. Lines
+     * above the limit are only written to the log files in <code>forkLogDirectory</code>, and their count is reported.
+     * Errors and warnings are always logged. Defaults to <code>0</code>, no limit: a limit, like <code>1000</code>, is
+     * useful with verbose log levels such as <code>TRACE</code>.
+     * <p>
+     * Can be set from command line using '-Dgwt.log.maxRate=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "0", property = "gwt.log.maxRate")
+    private int maxLogRate;
+
+    /**
+     * Directory where the full output of the GWT tools is written, in a subdirectory per goal execution, as a gzipped
+     * file per tool and module.
+     * <p>
+     * Can be set from command line using '-Dgwt.log.directory=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-logs", property = "gwt.log.directory")
+    private File forkLogDirectory;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     // methods
 
     /**
@@ -249,6 +302,16 @@ public abstract class AbstractGwtShellMojo
         this.timeOut = timeOut;
     }
 
+    /**
+     * <p>Getter for the field <code>timeOut</code>.</p>
+     *
+     * @return the forked process execution timeOut, in seconds
+     */
+    protected int getTimeOut()
+    {
+        return timeOut;
+    }
+
     /**
      * <p>createJavaCommand.</p>
      *
@@ -260,6 +323,10 @@ public abstract class AbstractGwtShellMojo
             .setJvm( getJvm() )
             .setJvmArgs( getJvmArgs() )
             .setTimeOut( timeOut )
+            .setDaemon( daemon )
+            .setDaemonIdleTimeout( daemonIdleTimeout )
+            .setMaxLogRate( maxLogRate )
+            .setLogDirectory( getExecutionLogDirectory() )
             .addClassPathProcessors( new ClassPathProcessor()
             {
                 @Override
@@ -269,6 +336,18 @@ public abstract class AbstractGwtShellMojo
                 }
             } );
     }
+    /**
+     * @return the directory for the log files of this goal execution, so that executions don't overwrite each other's
+     */
+    private File getExecutionLogDirectory()
+    {
+        if ( mojoExecution == null )
+        {
+            return forkLogDirectory;
+        }
+        return new File( forkLogDirectory, mojoExecution.getGoal() + "-" + mojoExecution.getExecutionId() );
+    }
+
     /**
      * Add sources.jar artifacts for project dependencies listed as compileSourcesArtifacts. This is a GWT hack to avoid
      * packaging java source files into JAR when sharing code between server and client. Typically, some domain model
@@ -338,14 +417,27 @@ public abstract class AbstractGwtShellMojo
      * @param cmd a {@link org.codehaus.mojo.gwt.shell.JavaCommand} object.
      */
     protected void addArgumentGen( JavaCommand cmd )
+    {
+        addArgumentGen( cmd, null );
+    }
+
+    /**
+     * Add the -gen argument, to a subdirectory of <code>gen</code> for tools running concurrently that would otherwise
+     * write the same generated files at the same time.
+     *
+     * @param cmd a {@link org.codehaus.mojo.gwt.shell.JavaCommand} object.
+     * @param subdirectory the subdirectory of <code>gen</code> to use, may be <code>null</code>
+     */
+    protected void addArgumentGen( JavaCommand cmd, String subdirectory )
     {
         if ( this.genParam )
         {
-            if ( !this.gen.exists() )
+            File genDirectory = subdirectory != null ? new File( this.gen, subdirectory ) : this.gen;
+            if ( !genDirectory.exists() )
             {
-                this.gen.mkdirs();
+                genDirectory.mkdirs();
             }
-            cmd.arg( "-gen", this.gen.getAbsolutePath() );
+            cmd.arg( "-gen", genDirectory.getAbsolutePath() );
         }
     }
 
@@ -37,6 +37,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Creates CSS interfaces for css files.
@@ -87,78 +89,150 @@ public class CSSMojo
     {
         setup();
 
-        // java -cp gwt-dev.jar:gwt-user.jar
-        // com.google.gwt.resources.css.InterfaceGenerator -standalone -typeName some.package.MyCssResource -css
-        // input.css
-        if ( cssFiles != null )
+        if ( cssFiles == null )
         {
-            for ( String file : cssFiles )
+            return;
+        }
+
+        // typeName, css file and java file of each interface to generate
+        List<String> files = new ArrayList<String>();
+        for ( String file : cssFiles )
+        {
+            final String typeName = FilenameUtils.separatorsToSystem( file ).
+                substring( 0, file.lastIndexOf( '.' ) ).replace( File.separatorChar, '.' );
+            final File javaOutput =
+                new File( getGenerateDirectory(), typeName.replace( '.', File.separatorChar ) + ".java" );
+            for ( Resource resource : getProject().getResources() )
             {
-                final String typeName = FilenameUtils.separatorsToSystem( file ).
-                    substring( 0, file.lastIndexOf( '.' ) ).replace( File.separatorChar, '.' );
-                final File javaOutput =
-                    new File( getGenerateDirectory(), typeName.replace( '.', File.separatorChar ) + ".java" );
-                for ( Resource resource : getProject().getResources() )
+                final File candidate = new File( resource.getDirectory(), file );
+                if ( candidate.exists() )
                 {
-                    final File candidate = new File( resource.getDirectory(), file );
-                    if ( candidate.exists() )
+                    if ( buildContext.isUptodate( javaOutput, candidate ) )
                     {
-                        if ( buildContext.isUptodate( javaOutput, candidate ) )
-                        {
-                            getLog().debug( javaOutput.getAbsolutePath() + " is up to date. Generation skipped" );
-                            break;
-                        }
+                        getLog().debug( javaOutput.getAbsolutePath() + " is up to date. Generation skipped" );
+                        break;
+                    }
+
+                    getLog().info( "Generating " + javaOutput + " with typeName " + typeName );
+                    ensureTargetPackageExists( getGenerateDirectory(), typeName );
+                    files.add( typeName );
+                    files.add( candidate.getAbsolutePath() );
+                    files.add( javaOutput.getAbsolutePath() );
+                    break;
+                }
+            }
+        }
+        if ( files.isEmpty() )
+        {
+            return;
+        }
 
-                        getLog().info( "Generating " + javaOutput + " with typeName " + typeName );
-                        ensureTargetPackageExists( getGenerateDirectory(), typeName );
+        try
+        {
+            if ( !generateInBatch( files ) )
+            {
+                for ( int i = 0; i < files.size(); i += 3 )
+                {
+                    generate( files.get( i ), new File( files.get( i + 1 ) ), new File( files.get( i + 2 ) ) );
+                }
+            }
+        }
+        catch ( JavaCommandException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+        for ( int i = 2; i < files.size(); i += 3 )
+        {
+            buildContext.refresh( new File( files.get( i ) ) );
+        }
+    }
 
-                        
-                        try
+    /**
+     * Generate all interfaces with a single JVM.
+     *
+     * @return <code>false</code> if InterfaceGenerator can't be used in batch with this GWT version
+     */
+    private boolean generateInBatch( List<String> files )
+        throws MojoExecutionException, JavaCommandException
+    {
+        final boolean[] unsupported = new boolean[1];
+        JavaCommand cmd = createJavaCommand()
+            .setMainClass( CssInterfaceBatch.class.getName() )
+            .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
+            .addToClasspath( getGwtDevJar() )
+            .addToClasspath( getGwtUserJar() )
+            .addToClasspath( JavaCommand.getPluginJar() )
+            .arg( "-encoding", encoding )
+            .setOut( new StreamConsumer()
+                {
+                    public void consumeLine( String line )
+                    {
+                        if ( CssInterfaceBatch.UNSUPPORTED.equals( line ) )
                         {
-                            final StringBuilder content = new StringBuilder();
-                            createJavaCommand()
-                                .setMainClass( "com.google.gwt.resources.css.InterfaceGenerator" )
-                                .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
-                                .arg( "-standalone" )
-                                .arg( "-typeName" )
-                                .arg( typeName )
-                                .arg( "-css" )
-                                .arg( candidate.getAbsolutePath() )
-                                .addToClasspath( getGwtDevJar() )
-                                .addToClasspath( getGwtUserJar() )
-                                .setOut( new StreamConsumer()
-                                    {
-                                        public void consumeLine( String line )
-                                        {
-                                            content.append( line ).append( SystemUtils.LINE_SEPARATOR );
-                                        }
-                                    } )
-                                .execute();
-                            if ( content.length() == 0 )
-                            {
-                                throw new MojoExecutionException( "cannot generate java source from file " + file + "." );
-                            }
-                            final OutputStreamWriter outputWriter =
-                                new OutputStreamWriter( buildContext.newFileOutputStream( javaOutput ) , encoding );
-                            try {
-                                outputWriter.write( content.toString() );
-                            } finally {
-                                IOUtil.close( outputWriter );
-                            }
+                            unsupported[0] = true;
                         }
-                        catch ( IOException e )
+                        else
                         {
-                            throw new MojoExecutionException( "Failed to write to file: " + javaOutput, e );
+                            getLog().info( line );
                         }
-                        catch ( JavaCommandException e )
+                    }
+                } );
+        for ( String arg : files )
+        {
+            cmd.arg( arg );
+        }
+        cmd.execute();
+        if ( unsupported[0] )
+        {
+            getLog().debug( "InterfaceGenerator can't run in batch, forking a JVM per CSS file" );
+        }
+        return !unsupported[0];
+    }
+
+    // java -cp gwt-dev.jar:gwt-user.jar
+    // com.google.gwt.resources.css.InterfaceGenerator -standalone -typeName some.package.MyCssResource -css
+    // input.css
+    private void generate( String typeName, File candidate, File javaOutput )
+        throws MojoExecutionException, JavaCommandException
+    {
+        try
+        {
+            final StringBuilder content = new StringBuilder();
+            createJavaCommand()
+                .setMainClass( "com.google.gwt.resources.css.InterfaceGenerator" )
+                .setLogName( typeName )
+                .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
+                .arg( "-standalone" )
+                .arg( "-typeName" )
+                .arg( typeName )
+                .arg( "-css" )
+                .arg( candidate.getAbsolutePath() )
+                .addToClasspath( getGwtDevJar() )
+                .addToClasspath( getGwtUserJar() )
+                .setOut( new StreamConsumer()
+                    {
+                        public void consumeLine( String line )
                         {
-                            throw new MojoExecutionException( e.getMessage(), e );
+                            content.append( line ).append( SystemUtils.LINE_SEPARATOR );
                         }
-                        break;
-                    }
-                }
+                    } )
+                .execute();
+            if ( content.length() == 0 )
+            {
+                throw new MojoExecutionException( "cannot generate java source from file " + candidate + "." );
+            }
+            final OutputStreamWriter outputWriter =
+                new OutputStreamWriter( buildContext.newFileOutputStream( javaOutput ) , encoding );
+            try {
+                outputWriter.write( content.toString() );
+            } finally {
+                IOUtil.close( outputWriter );
             }
         }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to write to file: " + javaOutput, e );
+        }
     }
 
     private void setup()
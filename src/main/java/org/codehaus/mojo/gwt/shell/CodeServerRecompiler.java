@@ -0,0 +1,161 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Asks a running Super Dev Mode code server to recompile modules, through its <code>/recompile/</code> endpoint, so
+ * that the compile is done by the time the browser is refreshed.
+ *
+ * @since 2.8.0
+ */
+class CodeServerRecompiler
+{
+    private final String baseUrl;
+
+    private final String parameters;
+
+    private final List<String> modules;
+
+    private final Log log;
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor( new ThreadFactory()
+    {
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "gwt-codeserver-recompiler" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    /**
+     * @param baseUrl the code server URL, ending with a '/'
+     * @param parameters the binding properties of the permutation to compile, as an URL query
+     * @param modules the modules to recompile, by output name
+     * @param log where to report compiles
+     */
+    CodeServerRecompiler( String baseUrl, String parameters, String[] modules, Log log )
+    {
+        this.baseUrl = baseUrl;
+        this.parameters = parameters;
+        this.modules = Arrays.asList( modules );
+        this.log = log;
+    }
+
+    /**
+     * Recompile all modules in the background. Requests made while a recompile runs are coalesced into a single
+     * recompile once it completes.
+     */
+    void requestRecompile()
+    {
+        if ( pending.getAndSet( true ) )
+        {
+            return;
+        }
+        executor.execute( new Runnable()
+        {
+            public void run()
+            {
+                pending.set( false );
+                for ( String module : modules )
+                {
+                    try
+                    {
+                        long time = recompile( module );
+                        log.info( "Recompiled " + module + " in " + time + "ms" );
+                    }
+                    catch ( IOException e )
+                    {
+                        log.warn( "Failed to recompile " + module + ": " + e.getMessage() );
+                    }
+                }
+            }
+        } );
+    }
+
+    /**
+     * Recompile a module and wait for the compile to complete.
+     *
+     * @param module the output name of the module to recompile
+     * @return the compile time, in milliseconds
+     * @throws IOException if the code server can't be reached or failed to compile the module
+     */
+    long recompile( String module )
+        throws IOException
+    {
+        long start = System.currentTimeMillis();
+        URL url = new URL( baseUrl + "recompile/" + module + ( parameters.length() > 0 ? "?" + parameters : "" ) );
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setUseCaches( false );
+        try
+        {
+            if ( connection.getResponseCode() != HttpURLConnection.HTTP_OK )
+            {
+                throw new IOException( "code server responded " + connection.getResponseCode() + " "
+                    + connection.getResponseMessage() );
+            }
+            InputStream in = connection.getInputStream();
+            String status;
+            try
+            {
+                status = IOUtil.toString( in, "UTF-8" );
+            }
+            finally
+            {
+                in.close();
+            }
+            log.debug( status );
+            // the response is a JSON object, with an "ok" or "failed" status
+            if ( !status.contains( "\"ok\"" ) )
+            {
+                throw new IOException( "compile failed, see the code server log" );
+            }
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Stop recompiling.
+     */
+    void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,213 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Time and resources used to compile GWT modules, written as a JSON file per build and appended to a CSV file, to
+ * chart build performance over time.
+ *
+ * @since 2.8.0
+ */
+class CompileMetrics
+{
+    private static final String[] COLUMNS = { "timestamp", "project", "module", "success", "wallTime", "startupTime",
+        "mainTime", "sumOfPoolPeaks", "peakRss", "gcTime", "modulesInFork", "permutations", "outputSize" };
+
+    private final String project;
+
+    private final long timestamp = System.currentTimeMillis();
+
+    private final List<Object[]> rows = new ArrayList<Object[]>();
+
+    /**
+     * @param project the project coordinates
+     */
+    CompileMetrics( String project )
+    {
+        this.project = project;
+    }
+
+    /**
+     * Record the compilation of modules by a forked JVM.
+     *
+     * @param modules the modules compiled by the JVM
+     * @param outputs the output directory of each module
+     * @param launch the time the JVM was launched
+     * @param end the time the JVM exited
+     * @param forkMetrics the metrics written by {@link ForkMetrics}, may not exist if the JVM crashed
+     * @param success whether the compilation succeeded
+     */
+    synchronized void add( List<String> modules, List<File> outputs, long launch, long end, File forkMetrics,
+                           boolean success )
+    {
+        Properties fork = new Properties();
+        if ( forkMetrics.isFile() )
+        {
+            InputStream in = null;
+            try
+            {
+                in = new FileInputStream( forkMetrics );
+                fork.load( in );
+            }
+            catch ( IOException e )
+            {
+                // report what we know
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+            forkMetrics.delete();
+        }
+        long jvmStart = getLong( fork, ForkMetrics.JVM_START );
+        long mainStart = getLong( fork, ForkMetrics.MAIN_START );
+        long mainEnd = getLong( fork, ForkMetrics.END );
+        long startupTime = jvmStart > 0 && mainStart > 0 ? mainStart - jvmStart : -1;
+        long mainTime = mainStart > 0 && mainEnd > 0 ? mainEnd - mainStart : -1;
+
+        for ( int i = 0; i < modules.size(); i++ )
+        {
+            File output = outputs.get( i );
+            rows.add( new Object[] { timestamp, project, modules.get( i ), success, end - launch,
+                startupTime, mainTime, getLong( fork, ForkMetrics.SUM_OF_POOL_PEAKS ),
+                getLong( fork, ForkMetrics.PEAK_RSS ), getLong( fork, ForkMetrics.GC_TIME ), modules.size(),
+                countPermutations( output ), output.isDirectory() ? FileUtils.sizeOfDirectory( output ) : -1L } );
+        }
+    }
+
+    /**
+     * Write the metrics recorded so far.
+     *
+     * @param directory the metrics directory
+     * @return the JSON file written
+     * @throws IOException if the files can't be written
+     */
+    synchronized File write( File directory )
+        throws IOException
+    {
+        directory.mkdirs();
+        File json = new File( directory, "compile-" + new SimpleDateFormat( "yyyyMMdd-HHmmss" ).format(
+            new Date( timestamp ) ) + ".json" );
+        StringBuilder content = new StringBuilder( "{\n  \"modules\": [" );
+        for ( int r = 0; r < rows.size(); r++ )
+        {
+            content.append( r > 0 ? "," : "" ).append( "\n    {" );
+            Object[] row = rows.get( r );
+            for ( int c = 0; c < COLUMNS.length; c++ )
+            {
+                content.append( c > 0 ? ", " : " " ).append( '"' ).append( COLUMNS[c] ).append( "\": " );
+                if ( row[c] instanceof String )
+                {
+                    content.append( '"' ).append( escape( (String) row[c] ) ).append( '"' );
+                }
+                else
+                {
+                    content.append( row[c] );
+                }
+            }
+            content.append( " }" );
+        }
+        content.append( "\n  ]\n}\n" );
+        write( json, content.toString(), false );
+
+        File csv = new File( directory, "compile.csv" );
+        StringBuilder lines = new StringBuilder();
+        if ( !csv.exists() )
+        {
+            appendCsvLine( lines, COLUMNS );
+        }
+        for ( Object[] row : rows )
+        {
+            appendCsvLine( lines, row );
+        }
+        write( csv, lines.toString(), true );
+        return json;
+    }
+
+    private static void appendCsvLine( StringBuilder lines, Object[] values )
+    {
+        for ( int i = 0; i < values.length; i++ )
+        {
+            lines.append( i > 0 ? "," : "" ).append( values[i] );
+        }
+        lines.append( '\n' );
+    }
+
+    private static void write( File file, String content, boolean append )
+        throws IOException
+    {
+        Writer writer = new OutputStreamWriter( new FileOutputStream( file, append ), "UTF-8" );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private static long getLong( Properties properties, String key )
+    {
+        return Long.parseLong( properties.getProperty( key, "-1" ) );
+    }
+
+    /**
+     * Each permutation is compiled to a <code>&lt;strong name&gt;.cache.js</code> file in the module directory.
+     */
+    private static int countPermutations( File output )
+    {
+        File[] files = output.listFiles();
+        if ( files == null )
+        {
+            return -1;
+        }
+        int count = 0;
+        for ( File file : files )
+        {
+            if ( file.isFile() && file.getName().endsWith( ".cache.js" ) )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String escape( String value )
+    {
+        return value.replace( "\\", "\\\\" ).replace( "\"", "\\\"" );
+    }
+}
@@ -24,6 +24,7 @@ package org.codehaus.mojo.gwt.shell;
  */
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -31,15 +32,27 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.codehaus.mojo.gwt.GwtModule;
+import org.codehaus.mojo.gwt.utils.Fingerprint;
 import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
-import org.codehaus.plexus.compiler.util.scan.InclusionScanException;
-import org.codehaus.plexus.compiler.util.scan.StaleSourceScanner;
-import org.codehaus.plexus.compiler.util.scan.mapping.SingleTargetSourceMapping;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
-import java.util.Collection;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Invokes the GWT Compiler for the project source.
@@ -58,6 +71,11 @@ import java.util.HashSet;
 public class CompileMojo
     extends AbstractGwtShellMojo
 {
+    /**
+     * Compiler arguments, with a value, left out of the fingerprint as they don't change the compiler output.
+     */
+    private static final Set<String> OUTPUT_NEUTRAL_ARGS =
+        new HashSet<String>( Arrays.asList( "-localWorkers", "-logLevel", "-workDir" ) );
 
     @Parameter(property = "gwt.compiler.skip", defaultValue = "false")
     private boolean skip;
@@ -70,6 +88,16 @@ public class CompileMojo
     @Parameter(property = "gwt.compiler.force", defaultValue = "false")
     private boolean force;
 
+    /**
+     * Directory where the fingerprints of the compiled modules inputs are stored. A module is only compiled again when
+     * the content of its inputs has changed : compiler arguments, classpath, descriptors, sources and public resources
+     * of the module and of its inherited modules.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-fingerprints")
+    private File fingerprintDirectory;
+
     /**
      * On GWT 1.6+, number of parallel processes used to compile GWT premutations. Defaults to
      * platform available processors number.
@@ -362,6 +390,50 @@ public class CompileMojo
     @Parameter(defaultValue = "NONE", property = "gwt.compiler.methodNameDisplayMode")
     private String methodNameDisplayMode;
 
+    /**
+     * Number of modules compiled concurrently, each one in its own forked JVM. The <code>localWorkers</code> are shared
+     * between the concurrent compilations, and each compilation gets its own subdirectory, named after the module, of
+     * <code>gen</code> and <code>workDir</code>. Defaults to compiling all modules in a single JVM.
+     * <p>
+     * Can be set from command line using '-Dgwt.compiler.parallelModules=n'.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "1", property = "gwt.compiler.parallelModules")
+    private int parallelModules;
+
+    /**
+     * Total maximum heap size shared between the concurrent module compilations (for example <code>4g</code>). Each
+     * forked JVM then gets an equal share as <code>-Xmx</code>, overriding the one set in <code>extraJvmArgs</code>.
+     * <p>
+     * Can be set from command line using '-Dgwt.compiler.parallelMaxHeap=...'.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(property = "gwt.compiler.parallelMaxHeap")
+    private String parallelMaxHeap;
+
+    /**
+     * Record the time and resources used to compile each module: wall time, forked JVM startup time (from JVM start to
+     * the compiler main), compiler run time, sum of the heap memory pool peaks (an upper bound of the peak heap), peak
+     * resident set size (on Linux), garbage collection time, permutation count and output size. Metrics are written as
+     * a JSON file per build and appended to <code>compile.csv</code> in <code>metricsDirectory</code>.
+     * <p>
+     * Can be set from command line using '-Dgwt.compiler.buildMetrics=true'.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.compiler.buildMetrics")
+    private boolean buildMetrics;
+
+    /**
+     * Directory where compilation metrics are written when <code>buildMetrics</code> is set.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-metrics")
+    private File metricsDirectory;
+
     /**
      * <p>doExecute.</p>
      *
@@ -402,27 +474,293 @@ public class CompileMojo
     private void compile( String[] modules )
         throws MojoExecutionException
     {
-        boolean upToDate = true;
-
-        JavaCommand cmd = createJavaCommand()
-            .setMainClass( "com.google.gwt.dev.Compiler" );
+        addExtraSources();
+        List<File> classpath = new ArrayList<File>();
         if ( gwtSdkFirstInClasspath )
         {
-            cmd.addToClasspath( getGwtUserJar() )
-               .addToClasspath( getGwtDevJar() );
+            classpath.addAll( getGwtUserJar() );
+            classpath.addAll( getGwtDevJar() );
         }
-        addExtraSources();
-        cmd.addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) );
+        classpath.addAll( getClasspath( Artifact.SCOPE_COMPILE ) );
         if ( !gwtSdkFirstInClasspath )
         {
-            cmd.addToClasspath( getGwtUserJar() )
-               .addToClasspath( getGwtDevJar() );
+            classpath.addAll( getGwtUserJar() );
+            classpath.addAll( getGwtDevJar() );
+        }
+
+        JavaCommand cmd = createCompilerCommand( classpath, getLocalWorkers(), 0, null );
+        Map<String, Fingerprint> fingerprints = new LinkedHashMap<String, Fingerprint>();
+        for ( String target : modules )
+        {
+            Fingerprint fingerprint = getFingerprint( target, cmd );
+            if ( !compilationRequired( target, getOutputDirectory(), fingerprint ) )
+            {
+                // only touched inputs get their new stats recorded, not to hash them again
+                if ( fingerprint != null && !fingerprint.isStored() )
+                {
+                    storeFingerprint( target, fingerprint );
+                }
+                continue;
+            }
+            fingerprints.put( target, fingerprint );
+        }
+        if ( fingerprints.isEmpty() )
+        {
+            return;
+        }
+
+        CompileMetrics metrics = buildMetrics ? new CompileMetrics( getProject().getId() ) : null;
+        try
+        {
+            int parallel = Math.min( parallelModules, fingerprints.size() );
+            if ( parallel > 1 )
+            {
+                compileInParallel( fingerprints, classpath, parallel, metrics );
+                return;
+            }
+
+            for ( String target : fingerprints.keySet() )
+            {
+                cmd.arg( target );
+            }
+            try
+            {
+                execute( cmd, new ArrayList<String>( fingerprints.keySet() ), metrics );
+            }
+            catch ( JavaCommandException e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+            for ( Map.Entry<String, Fingerprint> fingerprint : fingerprints.entrySet() )
+            {
+                storeFingerprint( fingerprint.getKey(), fingerprint.getValue() );
+            }
+        }
+        finally
+        {
+            if ( metrics != null )
+            {
+                try
+                {
+                    getLog().info( "GWT compilation metrics written to " + metrics.write( metricsDirectory ) );
+                }
+                catch ( IOException e )
+                {
+                    getLog().warn( "Failed to write GWT compilation metrics: " + e.getMessage() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the compiler, recording the compilation metrics if requested.
+     */
+    private void execute( JavaCommand cmd, List<String> modules, CompileMetrics metrics )
+        throws JavaCommandException, MojoExecutionException
+    {
+        if ( metrics == null )
+        {
+            cmd.execute();
+            return;
+        }
+        List<File> outputs = new ArrayList<File>();
+        for ( String module : modules )
+        {
+            try
+            {
+                outputs.add( new File( getOutputDirectory(), readModule( module ).getPath() ) );
+            }
+            catch ( GwtModuleReaderException e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+        }
+        File forkMetrics = new File( metricsDirectory, modules.get( 0 ) + ".fork.properties" );
+        cmd.setMetricsFile( forkMetrics );
+        boolean success = false;
+        long launch = System.currentTimeMillis();
+        try
+        {
+            cmd.execute();
+            success = true;
+        }
+        finally
+        {
+            metrics.add( modules, outputs, launch, System.currentTimeMillis(), forkMetrics, success );
+        }
+    }
+
+    /**
+     * Compile each module in its own forked JVM, running <code>parallel</code> compilations at a time. The output of
+     * each compilation goes through its own log pipeline, with the module name as prefix to tell concurrent
+     * compilations apart, and to its own log file.
+     */
+    private void compileInParallel( Map<String, Fingerprint> fingerprints, List<File> classpath, int parallel,
+                                    final CompileMetrics metrics )
+        throws MojoExecutionException
+    {
+        int workers = Math.max( 1, getLocalWorkers() / parallel );
+        int maxHeap = 0;
+        if ( StringUtils.isNotEmpty( parallelMaxHeap ) )
+        {
+            maxHeap = (int) ( parseMemorySize( parallelMaxHeap ) / parallel / ( 1024 * 1024 ) );
+        }
+        getLog().info( "Compiling " + fingerprints.size() + " modules, " + parallel + " at a time with " + workers
+            + " local workers" + ( maxHeap > 0 ? " and " + maxHeap + "m heap" : "" ) + " each" );
+
+        ExecutorService executor = Executors.newFixedThreadPool( parallel );
+        Map<String, Future<Boolean>> results = new LinkedHashMap<String, Future<Boolean>>();
+        try
+        {
+            for ( final String module : fingerprints.keySet() )
+            {
+                final JavaCommand cmd = createCompilerCommand( classpath, workers, maxHeap, module ).arg( module );
+                results.put( module, executor.submit( new Callable<Boolean>()
+                {
+                    public Boolean call()
+                    {
+                        return Boolean.valueOf( compileModule( module, cmd, metrics ) );
+                    }
+                } ) );
+            }
+
+            List<String> failures = new ArrayList<String>();
+            for ( Map.Entry<String, Future<Boolean>> result : results.entrySet() )
+            {
+                String module = result.getKey();
+                try
+                {
+                    if ( result.getValue().get().booleanValue() )
+                    {
+                        storeFingerprint( module, fingerprints.get( module ) );
+                    }
+                    else
+                    {
+                        failures.add( module );
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException( "Interrupted while compiling " + module, e );
+                }
+                catch ( ExecutionException e )
+                {
+                    throw new MojoExecutionException( "Failed to compile " + module, e.getCause() );
+                }
+            }
+            if ( !failures.isEmpty() )
+            {
+                throw new MojoExecutionException( "GWT compilation failed for " + failures );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean compileModule( String module, JavaCommand cmd, CompileMetrics metrics )
+    {
+        String prefix = "[" + module + "] ";
+        cmd.setLogPrefix( prefix ).setLogName( module );
+
+        long start = System.currentTimeMillis();
+        Exception failure = null;
+        try
+        {
+            execute( cmd, Collections.singletonList( module ), metrics );
+        }
+        catch ( JavaCommandException e )
+        {
+            failure = e;
+        }
+        catch ( MojoExecutionException e )
+        {
+            failure = e;
+        }
+        long time = System.currentTimeMillis() - start;
+
+        if ( failure != null )
+        {
+            // the output was logged as it came, mixed with the other compilations: point to the module log
+            File logFile = cmd.getLogFile();
+            getLog().error( prefix + failure.getMessage()
+                + ( logFile != null ? "\n" + prefix + "Full output in " + logFile : "" ) );
+        }
+        else
+        {
+            getLog().info( prefix + "Compiled in " + time + " ms" );
+        }
+        return failure == null;
+    }
+
+    /**
+     * Parse a JVM memory size, like <code>4g</code> or <code>512m</code>.
+     */
+    private static long parseMemorySize( String size )
+        throws MojoExecutionException
+    {
+        String value = size.trim().toLowerCase();
+        long unit = 1;
+        char last = value.charAt( value.length() - 1 );
+        if ( last == 'k' )
+        {
+            unit = 1024L;
+        }
+        else if ( last == 'm' )
+        {
+            unit = 1024L * 1024;
+        }
+        else if ( last == 'g' )
+        {
+            unit = 1024L * 1024 * 1024;
+        }
+        if ( unit > 1 )
+        {
+            value = value.substring( 0, value.length() - 1 );
+        }
+        try
+        {
+            return Long.parseLong( value ) * unit;
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new MojoExecutionException( "Invalid parallelMaxHeap " + size );
+        }
+    }
+
+    /**
+     * Create the GWT compiler command line, without the modules to compile.
+     *
+     * @param classpath the compiler classpath
+     * @param localWorkers the number of local workers
+     * @param maxHeap the JVM maximum heap size in megabytes, or <code>0</code> to keep the one set by extraJvmArgs
+     * @param module the module compiled concurrently with others, to get its own gen and work directories, or
+     *            <code>null</code> when compiling all modules in this JVM
+     */
+    private JavaCommand createCompilerCommand( List<File> classpath, int localWorkers, int maxHeap, String module )
+        throws MojoExecutionException
+    {
+        JavaCommand cmd = createJavaCommand()
+            .setMainClass( "com.google.gwt.dev.Compiler" )
+            .addToClasspath( classpath );
+        if ( maxHeap > 0 )
+        {
+            for ( Iterator<String> iterator = cmd.getJvmArgs().iterator(); iterator.hasNext(); )
+            {
+                if ( iterator.next().startsWith( "-Xmx" ) )
+                {
+                    iterator.remove();
+                }
+            }
+            cmd.getJvmArgs().add( "-Xmx" + maxHeap + "m" );
         }
 
         cmd.arg( "-logLevel", getLogLevel() )
             .arg( "-style", getStyle() )
             .arg( "-war", getOutputDirectory().getAbsolutePath() )
-            .arg( "-localWorkers", String.valueOf( getLocalWorkers() ) )
+            .arg( "-localWorkers", String.valueOf( localWorkers ) )
             // optional advanced arguments
             .arg( checkAssertions, "-checkAssertions" )
             .arg( draftCompile, "-draftCompile" )
@@ -488,33 +826,141 @@ public class CompileMojo
 
         addCompileSourceArtifacts( cmd );
         addArgumentDeploy(cmd);
-        addArgumentGen( cmd );
+        addArgumentGen( cmd, module );
         addPersistentUnitCache(cmd);
 
         if ( workDir != null )
         {
-            cmd.arg( "-workDir" ).arg( String.valueOf( workDir ) );
+            File moduleWorkDir = workDir;
+            if ( module != null )
+            {
+                // concurrent compilations must not share their work files
+                moduleWorkDir = new File( workDir, module );
+                moduleWorkDir.mkdirs();
+            }
+            cmd.arg( "-workDir" ).arg( String.valueOf( moduleWorkDir ) );
         }
 
-        for ( String target : modules )
+        return cmd;
+    }
+
+    /**
+     * Compute the fingerprint of the compilation inputs of a module : compiler arguments, classpath, and the
+     * descriptors, sources and public resources of the module and its inherited modules.
+     *
+     * @param module Name of the GWT module to compile
+     * @param cmd the compiler command line, before modules are added
+     * @return the fingerprint, or <code>null</code> if the module has no entry point
+     * @throws MojoExecutionException When the module can't be read or the inputs can't be hashed
+     */
+    private Fingerprint getFingerprint( String module, JavaCommand cmd )
+        throws MojoExecutionException
+    {
+        try
         {
-            if ( !compilationRequired( target, getOutputDirectory() ) )
+            GwtModule gwtModule = readModule( module );
+            if ( gwtModule.getEntryPoints().size() == 0 )
             {
-                continue;
+                return null;
             }
-            cmd.arg( target );
-            upToDate = false;
-        }
-        if ( !upToDate )
-        {
-            try
+
+            Fingerprint fingerprint = new Fingerprint( Fingerprint.load( getFingerprintFile( module ) ) )
+                .setRoots( getProject().getBasedir(),
+                           getLocalRepository() != null ? new File( getLocalRepository().getBasedir() ) : null );
+            fingerprint.addValue( "jvmArgs", String.valueOf( cmd.getJvmArgs() ) + cmd.getSystemProperties() );
+            fingerprint.addValue( "args", String.valueOf( getOutputArgs( cmd.getArgs() ) ) );
+
+            List<File> sourceRoots = new ArrayList<File>();
+            for ( String sourceRoot : getProject().getCompileSourceRoots() )
             {
-                cmd.execute();
+                sourceRoots.add( new File( sourceRoot ) );
             }
-            catch ( JavaCommandException e )
+            for ( Resource resource : getProject().getResources() )
             {
-                throw new MojoExecutionException( e.getMessage(), e );
+                sourceRoots.add( new File( resource.getDirectory() ) );
+            }
+
+            for ( File file : cmd.getClasspath() )
+            {
+                // source roots are fingerprinted below, restricted to the module sources
+                if ( !sourceRoots.contains( file ) )
+                {
+                    fingerprint.addFile( file );
+                }
+            }
+
+            Set<GwtModule> closure = new LinkedHashSet<GwtModule>();
+            closure.add( gwtModule );
+            closure.addAll( gwtModule.getInherits() );
+            for ( GwtModule m : closure )
+            {
+                if ( m.getSourceFile() != null )
+                {
+                    fingerprint.addFile( m.getSourceFile() );
+                }
+                List<String> paths = new ArrayList<String>();
+                paths.addAll( Arrays.asList( m.getSources() ) );
+                paths.addAll( Arrays.asList( m.getSuperSources() ) );
+                paths.add( m.getPublic() );
+                String packagePath = m.getPackage().replace( '.', '/' );
+                for ( File sourceRoot : sourceRoots )
+                {
+                    for ( String path : paths )
+                    {
+                        fingerprint.addDirectory( new File( sourceRoot, packagePath + '/' + path ), null );
+                    }
+                }
+            }
+            return fingerprint;
+        }
+        catch ( GwtModuleReaderException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to compute the fingerprint of module " + module, e );
+        }
+    }
+
+    /**
+     * The compiler arguments without those that don't change the compiler output, like the number of workers that
+     * depends on the machine, not to compile again when they change.
+     */
+    private static List<String> getOutputArgs( List<String> args )
+    {
+        List<String> outputArgs = new ArrayList<String>( args.size() );
+        for ( int i = 0; i < args.size(); i++ )
+        {
+            if ( OUTPUT_NEUTRAL_ARGS.contains( args.get( i ) ) )
+            {
+                // skip the value too
+                i++;
+                continue;
             }
+            outputArgs.add( args.get( i ) );
+        }
+        return outputArgs;
+    }
+
+    private File getFingerprintFile( String module )
+    {
+        return new File( fingerprintDirectory, module + ".properties" );
+    }
+
+    private void storeFingerprint( String module, Fingerprint fingerprint )
+    {
+        if ( fingerprint == null )
+        {
+            return;
+        }
+        try
+        {
+            fingerprint.store( getFingerprintFile( module ) );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Failed to store the fingerprint of module " + module + " : " + e.getMessage() );
         }
     }
 
@@ -528,110 +974,61 @@ public class CompileMojo
     }
 
     /**
-     * Try to find out, if there are stale sources. If aren't some, we don't have to compile... ...this heuristic
-     * doesn't take into account, that there could be updated dependencies. But for this case, as 'clean compile' could
-     * be executed which would force a compilation.
+     * Check if the module has to be compiled : it has an entry point, and its output is missing or the fingerprint of
+     * its inputs differs from the one recorded by the last compilation.
      *
      * @param module Name of the GWT module to compile
      * @param output Output path
-     * @return true if compilation is required (i.e. stale sources are found)
-     * @throws MojoExecutionException When sources scanning fails
-     * @author Alexander Gordt
+     * @param fingerprint the fingerprint of the module inputs
+     * @return true if compilation is required
      */
-    private boolean compilationRequired( String module, File output )
+    private boolean compilationRequired( String module, File output, Fingerprint fingerprint )
         throws MojoExecutionException
     {
         getLog().debug( "**Checking if compilation is required for " + module );
-        try
+        if ( fingerprint == null )
         {
+            getLog().info( module + " has no EntryPoint - compilation skipped" );
+            // No entry-point, this is an utility module : compiling this one will fail
+            // with '[ERROR] Module has no entry points defined'
+            return false;
+        }
+        getLog().debug( "Module has an entrypoint" );
 
-        	GwtModule gwtModule = readModule( module );
-            if ( gwtModule.getEntryPoints().size() == 0 )
-            {
-                getLog().info( gwtModule.getName() + " has no EntryPoint - compilation skipped" );
-                // No entry-point, this is an utility module : compiling this one will fail
-                // with '[ERROR] Module has no entry points defined'
-                return false;
-            }
-            getLog().debug( "Module has an entrypoint" );
-
-            if ( force )
-            {
-                return true;
-            }
-            getLog().debug( "Compilation not forced");
-            
-            String modulePath = gwtModule.getPath();
+        if ( force )
+        {
+            return true;
+        }
+        getLog().debug( "Compilation not forced");
 
-            String outputTarget = modulePath + "/" + modulePath + ".nocache.js";
-            File outputTargetFile = new File( output, outputTarget );
+        try
+        {
+            String modulePath = readModule( module ).getPath();
+            File outputTargetFile = new File( output, modulePath + "/" + modulePath + ".nocache.js" );
             // Require compilation if no js file present in target.
             if ( !outputTargetFile.exists() )
             {
                 return true;
             }
             getLog().debug( "Output file exists");
-            
-            File moduleFile = gwtModule.getSourceFile();
-            if(moduleFile == null) {
-            	return true; //the module was read from something like an InputStream; always recompile this because we can't make any other choice
-            }
-            getLog().debug( "There is a module source file (not an input stream");
-            
-            //If input is newer than target, recompile
-            if(moduleFile.lastModified() > outputTargetFile.lastModified()) 
-            {
-                getLog().debug( "Module file has been modified since the output file was created; recompiling" );
-            	return true;
-            }
-            getLog().debug( "The module XML hasn't been updated");
-
-            // js file already exists, but may not be up-to-date with project source files
-            SingleTargetSourceMapping singleTargetMapping = new SingleTargetSourceMapping( ".java", outputTarget );
-            StaleSourceScanner scanner = new StaleSourceScanner();
-            scanner.addSourceMapping( singleTargetMapping );
-
-            SingleTargetSourceMapping uiBinderMapping = new SingleTargetSourceMapping( ".ui.xml", outputTarget );
-            scanner.addSourceMapping( uiBinderMapping );
-
-            Collection<File> compileSourceRoots = new HashSet<File>();
-            for (String sourceRoot : getProject().getCompileSourceRoots()) {
-                for (String sourcePackage : gwtModule.getSources()) {
-                    String packagePath = gwtModule.getPackage().replace( '.', File.separatorChar );
-                    File sourceDirectory = new File (sourceRoot + File.separatorChar + packagePath + File.separator + sourcePackage);
-                    if(sourceDirectory.exists()) {
-                        getLog().debug(" Looking in a source directory "+sourceDirectory.getAbsolutePath() + " for possible changes");
-                        compileSourceRoots.add(sourceDirectory);					
-                    }
-                }
-            }
-
-            for ( File sourceRoot : compileSourceRoots )
-            {
-                if ( !sourceRoot.isDirectory() )
-                {
-                    continue;
-                }
-                try
-                {
-                    if ( !scanner.getIncludedSources( sourceRoot, output ).isEmpty() )
-                    {
-                        getLog().debug( "found stale source in " + sourceRoot + " compared with " + output );
-                        return true;
-                    }
-                }
-                catch ( InclusionScanException e )
-                {
-                    throw new MojoExecutionException( "Error scanning source root: \'" + sourceRoot + "\' "
-                        + "for stale files to recompile.", e );
-                }
-            }
-            getLog().info( module + " is up to date. GWT compilation skipped" );
-            return false;
         }
         catch ( GwtModuleReaderException e )
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
+
+        if ( fingerprint.getPrevious() == null )
+        {
+            getLog().info( "No fingerprint recorded for " + module + ", compiling" );
+            return true;
+        }
+        String difference = fingerprint.getDifference( fingerprint.getPrevious() );
+        if ( difference != null )
+        {
+            getLog().info( "Compiling " + module + " as " + difference );
+            return true;
+        }
+        getLog().info( module + " is up to date. GWT compilation skipped" );
+        return false;
     }
 }
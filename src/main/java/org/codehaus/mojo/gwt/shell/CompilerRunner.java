@@ -0,0 +1,87 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.reflect.Constructor;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.ArgProcessorBase;
+import com.google.gwt.dev.CompileTaskRunner;
+import com.google.gwt.dev.Compiler;
+import com.google.gwt.dev.CompilerOptions;
+import com.google.gwt.dev.CompilerOptionsImpl;
+
+/**
+ * Runs the GWT {@link Compiler} in a {@link JavaDaemon} worker JVM. <code>Compiler.main</code> calls
+ * <code>System.exit</code> once done, which would end the worker, so this does what it does but returns the exit
+ * status instead.
+ * <p>
+ * The compiler argument processor is not public, so it is created through reflection. If this is not possible with
+ * the GWT version in use, {@link JavaDaemon#UNSUPPORTED} is returned for the compiler to be forked.
+ * <p>
+ * This class runs in the worker JVM, with the GWT SDK on the classpath.
+ *
+ * @since 2.8.0
+ */
+public final class CompilerRunner
+{
+    private CompilerRunner()
+    {
+        // run only
+    }
+
+    /**
+     * <p>run.</p>
+     *
+     * @param args the compiler arguments
+     * @return the exit status of the compiler
+     */
+    public static int run( String[] args )
+    {
+        final CompilerOptions options = new CompilerOptionsImpl();
+        ArgProcessorBase argProcessor;
+        try
+        {
+            Constructor<?> constructor = Class.forName( Compiler.class.getName() + "$ArgProcessor" )
+                .getDeclaredConstructor( CompilerOptions.class );
+            constructor.setAccessible( true );
+            argProcessor = (ArgProcessorBase) constructor.newInstance( options );
+        }
+        catch ( Exception e )
+        {
+            return JavaDaemon.UNSUPPORTED;
+        }
+        if ( !argProcessor.processArgs( args ) )
+        {
+            return 1;
+        }
+
+        CompileTaskRunner.CompileTask task = new CompileTaskRunner.CompileTask()
+        {
+            public boolean run( TreeLogger logger )
+                throws UnableToCompleteException
+            {
+                return Compiler.compile( logger, options );
+            }
+        };
+        return CompileTaskRunner.runWithAppropriateLogger( options, task ) ? 0 : 1;
+    }
+}
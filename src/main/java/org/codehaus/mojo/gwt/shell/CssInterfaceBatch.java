@@ -0,0 +1,221 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.log.PrintWriterTreeLogger;
+import com.google.gwt.resources.css.InterfaceGenerator;
+
+/**
+ * Runs the GWT CSS {@link InterfaceGenerator} for a batch of CSS files in a single JVM, used by {@link CSSMojo}.
+ * <p>
+ * Arguments are <code>-encoding &lt;encoding&gt;</code>, optionally <code>-threads &lt;count&gt;</code>, then a list
+ * of <code>&lt;typeName&gt; &lt;cssFile&gt; &lt;javaFile&gt;</code> triples. The generated interfaces are written
+ * straight to their java file.
+ * <p>
+ * InterfaceGenerator only offers a <code>main</code> method that prints the interface and exits, so it is driven
+ * through reflection. If this is not possible with the GWT version in use, {@link #UNSUPPORTED} is printed and
+ * nothing is generated, for the caller to fall back to running the <code>main</code> method for each file.
+ * <p>
+ * This class runs in a forked JVM, with the GWT SDK on the classpath.
+ *
+ * @since 2.8.0
+ */
+public final class CssInterfaceBatch
+{
+    /** Printed on the standard output when InterfaceGenerator can't be run in batch. */
+    static final String UNSUPPORTED = "InterfaceGenerator batch mode is not supported";
+
+    private static Constructor<InterfaceGenerator> constructor;
+
+    private static Field interfaceName;
+
+    private static Field inputFile;
+
+    private static Field logger;
+
+    private static Field standaloneFile;
+
+    private static Method process;
+
+    private CssInterfaceBatch()
+    {
+        // main only
+    }
+
+    /**
+     * <p>main.</p>
+     *
+     * @param args the output encoding and the CSS files to process
+     * @throws java.lang.InterruptedException if interrupted while waiting for the files to be processed
+     */
+    public static void main( String[] args )
+        throws InterruptedException
+    {
+        System.exit( run( args ) );
+    }
+
+    /**
+     * Process the CSS files, for {@link JavaDaemon} to run this without exiting the JVM.
+     *
+     * @param args the output encoding and the CSS files to process
+     * @return the exit status
+     * @throws java.lang.InterruptedException if interrupted while waiting for the files to be processed
+     */
+    public static int run( String[] args )
+        throws InterruptedException
+    {
+        try
+        {
+            constructor = InterfaceGenerator.class.getDeclaredConstructor();
+            interfaceName = InterfaceGenerator.class.getDeclaredField( "interfaceName" );
+            inputFile = InterfaceGenerator.class.getDeclaredField( "inputFile" );
+            logger = InterfaceGenerator.class.getDeclaredField( "logger" );
+            standaloneFile = InterfaceGenerator.class.getDeclaredField( "standaloneFile" );
+            process = InterfaceGenerator.class.getDeclaredMethod( "process" );
+            constructor.setAccessible( true );
+            interfaceName.setAccessible( true );
+            inputFile.setAccessible( true );
+            logger.setAccessible( true );
+            standaloneFile.setAccessible( true );
+            process.setAccessible( true );
+        }
+        catch ( Exception e )
+        {
+            System.out.println( UNSUPPORTED );
+            return 0;
+        }
+
+        String encoding = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        final List<String[]> files = new ArrayList<String[]>();
+        int i = 0;
+        while ( i < args.length )
+        {
+            if ( "-encoding".equals( args[i] ) )
+            {
+                encoding = args[i + 1];
+                i += 2;
+            }
+            else if ( "-threads".equals( args[i] ) )
+            {
+                threads = Integer.parseInt( args[i + 1] );
+                i += 2;
+            }
+            else
+            {
+                files.add( new String[] { args[i], args[i + 1], args[i + 2] } );
+                i += 3;
+            }
+        }
+
+        final String outputEncoding = encoding;
+        final AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( threads, files.size() ) ) );
+        for ( final String[] file : files )
+        {
+            executor.execute( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        generate( file[0], new File( file[1] ), new File( file[2] ), outputEncoding );
+                    }
+                    catch ( Throwable e )
+                    {
+                        failures.incrementAndGet();
+                        synchronized ( System.err )
+                        {
+                            System.err.println( "Failed to generate interface for " + file[1] );
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            } );
+        }
+        executor.shutdown();
+        executor.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+        return failures.get() > 0 ? 1 : 0;
+    }
+
+    private static void generate( String typeName, File css, File output, String encoding )
+        throws Exception
+    {
+        PrintWriterTreeLogger treeLogger = new PrintWriterTreeLogger( new PrintWriter( System.err, true ) );
+        treeLogger.setMaxDetail( TreeLogger.WARN );
+
+        InterfaceGenerator generator = constructor.newInstance();
+        interfaceName.set( generator, typeName );
+        inputFile.set( generator, css );
+        logger.set( generator, treeLogger );
+        standaloneFile.setBoolean( generator, true );
+        String content;
+        try
+        {
+            content = (String) process.invoke( generator );
+        }
+        catch ( InvocationTargetException e )
+        {
+            throw new Exception( e.getCause() );
+        }
+        if ( content == null || content.length() == 0 )
+        {
+            throw new IllegalStateException( "cannot generate java source from file " + css );
+        }
+
+        // same line separators as when main() prints the interface
+        BufferedReader lines = new BufferedReader( new StringReader( content ) );
+        String separator = System.getProperty( "line.separator" );
+        Writer writer = new OutputStreamWriter( new FileOutputStream( output ), encoding );
+        try
+        {
+            for ( String line = lines.readLine(); line != null; line = lines.readLine() )
+            {
+                writer.write( line );
+                writer.write( separator );
+            }
+            // println() of the interface adds an empty line
+            writer.write( separator );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
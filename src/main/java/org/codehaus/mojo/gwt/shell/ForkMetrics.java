@@ -0,0 +1,187 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Runs a main class and records the resources used by the JVM when it exits: JVM start time, time the main class was
+ * invoked, sum of the peak usage of the heap memory pools, garbage collection time and, on Linux, peak resident set
+ * size.
+ * <p>
+ * The first argument is the main class to run, followed by its arguments. The metrics are written as properties to the
+ * file set by the <code>gwt.metrics.file</code> system property, from a shutdown hook as GWT tools call
+ * <code>System.exit</code>.
+ * <p>
+ * This class runs in a forked JVM, and must only depend on the JDK.
+ *
+ * @since 2.8.0
+ */
+public final class ForkMetrics
+{
+    /** System property of the file to write the metrics to. */
+    static final String FILE_PROPERTY = "gwt.metrics.file";
+
+    static final String JVM_START = "jvmStart";
+
+    static final String MAIN_START = "mainStart";
+
+    static final String END = "end";
+
+    /**
+     * Sum of the peak usage of each heap memory pool. Pools peak at different times, so this is an upper bound of the
+     * peak heap usage rather than the peak itself.
+     */
+    static final String SUM_OF_POOL_PEAKS = "sumOfPoolPeaks";
+
+    static final String PEAK_RSS = "peakRss";
+
+    static final String GC_TIME = "gcTime";
+
+    private ForkMetrics()
+    {
+        // main only
+    }
+
+    /**
+     * <p>main.</p>
+     *
+     * @param args the main class to run and its arguments
+     * @throws java.lang.Throwable if the main class fails
+     */
+    public static void main( String[] args )
+        throws Throwable
+    {
+        final long mainStart = System.currentTimeMillis();
+        final File file = new File( System.getProperty( FILE_PROPERTY ) );
+        Runtime.getRuntime().addShutdownHook( new Thread()
+        {
+            @Override
+            public void run()
+            {
+                write( file, mainStart );
+            }
+        } );
+
+        Method main = Class.forName( args[0] ).getMethod( "main", String[].class );
+        try
+        {
+            main.invoke( null, (Object) Arrays.copyOfRange( args, 1, args.length ) );
+        }
+        catch ( InvocationTargetException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+    private static void write( File file, long mainStart )
+    {
+        Properties metrics = new Properties();
+        metrics.setProperty( JVM_START, String.valueOf( ManagementFactory.getRuntimeMXBean().getStartTime() ) );
+        metrics.setProperty( MAIN_START, String.valueOf( mainStart ) );
+        metrics.setProperty( END, String.valueOf( System.currentTimeMillis() ) );
+
+        long sumOfPoolPeaks = 0;
+        for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+        {
+            if ( pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null )
+            {
+                sumOfPoolPeaks += pool.getPeakUsage().getUsed();
+            }
+        }
+        metrics.setProperty( SUM_OF_POOL_PEAKS, String.valueOf( sumOfPoolPeaks ) );
+
+        long gcTime = 0;
+        for ( GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans() )
+        {
+            gcTime += Math.max( 0, collector.getCollectionTime() );
+        }
+        metrics.setProperty( GC_TIME, String.valueOf( gcTime ) );
+        metrics.setProperty( PEAK_RSS, String.valueOf( getPeakRss() ) );
+
+        try
+        {
+            OutputStream out = new FileOutputStream( file );
+            try
+            {
+                metrics.store( out, null );
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            System.err.println( "Failed to write metrics to " + file + ": " + e.getMessage() );
+        }
+    }
+
+    /**
+     * @return the peak resident set size in bytes, read from <code>/proc/self/status</code>, or <code>-1</code> if
+     *         not available
+     */
+    private static long getPeakRss()
+    {
+        File status = new File( "/proc/self/status" );
+        if ( !status.canRead() )
+        {
+            return -1;
+        }
+        try
+        {
+            BufferedReader reader = new BufferedReader( new FileReader( status ) );
+            try
+            {
+                for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+                {
+                    if ( line.startsWith( "VmHWM:" ) )
+                    {
+                        // VmHWM:    123456 kB
+                        String value = line.substring( "VmHWM:".length() ).trim();
+                        return Long.parseLong( value.substring( 0, value.indexOf( ' ' ) ) ) * 1024;
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch ( Exception e )
+        {
+            // not available
+        }
+        return -1;
+    }
+}
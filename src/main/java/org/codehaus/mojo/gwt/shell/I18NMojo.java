@@ -22,14 +22,19 @@ package org.codehaus.mojo.gwt.shell;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.sonatype.plexus.build.incremental.BuildContext;
 
 /**
  * Creates I18N interfaces for constants and messages files.
@@ -85,6 +90,9 @@ public class I18NMojo
         return true;
     }
     
+    @Component
+    private BuildContext buildContext;
+
     /**
      * <p>doExecute.</p>
      *
@@ -96,66 +104,96 @@ public class I18NMojo
     {
         setup();
 
-        try {
-            // constants with lookup
-            if ( i18nConstantsWithLookupBundles != null )
+        // All bundles are generated by a single JVM
+        List<String> bundles = new ArrayList<String>();
+        addBundles( bundles, I18NSyncBatch.CONSTANTS_WITH_LOOKUP, i18nConstantsWithLookupBundles );
+        addBundles( bundles, I18NSyncBatch.CONSTANTS, i18nConstantsBundles );
+        addBundles( bundles, I18NSyncBatch.MESSAGES, i18nMessagesBundles );
+        if ( bundles.isEmpty() )
+        {
+            getLog().info( "All i18n interfaces are up to date" );
+            return;
+        }
+
+        getLog().info( "Generating " + bundles.size() / 2 + " i18n interface(s)" );
+        try
+        {
+            JavaCommand cmd = createJavaCommand()
+                .setMainClass( I18NSyncBatch.class.getName() )
+                .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
+                .addToClasspath( getGwtUserJar() )
+                .addToClasspath( getGwtDevJar() )
+                .addToClasspath( JavaCommand.getPluginJar() )
+                .arg( "-out", getGenerateDirectory().getAbsolutePath() );
+            for ( String arg : bundles )
             {
-                for ( String target : i18nConstantsWithLookupBundles )
-                {
-                    ensureTargetPackageExists( getGenerateDirectory(), target );
-                    createJavaCommand()
-                        .setMainClass( "com.google.gwt.i18n.tools.I18NSync" )
-                        .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
-                        .addToClasspath( getGwtUserJar() )
-                        .addToClasspath( getGwtDevJar() )
-                        .arg( "-out", getGenerateDirectory().getAbsolutePath() )
-                        .arg( "-createConstantsWithLookup" )
-                        .arg( target )
-                        .execute();
-                }
+                cmd.arg( arg );
             }
+            cmd.execute();
+        }
+        catch (JavaCommandException e)
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+        for ( int i = 1; i < bundles.size(); i += 2 )
+        {
+            buildContext.refresh( getInterfaceFile( bundles.get( i ) ) );
+        }
+    }
 
-            // constants
-            if ( i18nConstantsBundles != null )
+    /**
+     * Add the bundles whose interface must be generated, as I18NSyncBatch arguments.
+     */
+    private void addBundles( List<String> bundles, String type, String[] targets )
+    {
+        if ( targets == null )
+        {
+            return;
+        }
+        for ( String target : targets )
+        {
+            File properties = getPropertiesFile( target );
+            File output = getInterfaceFile( target );
+            if ( properties != null && buildContext.isUptodate( output, properties ) )
             {
-                for ( String target : i18nConstantsBundles )
-                {
-                    ensureTargetPackageExists( getGenerateDirectory(), target );
-                    createJavaCommand()
-                        .setMainClass( "com.google.gwt.i18n.tools.I18NSync" )
-                        .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
-                        .addToClasspath( getGwtUserJar() )
-                        .addToClasspath( getGwtDevJar() )
-                        .arg( "-out", getGenerateDirectory().getAbsolutePath() )
-                        .arg( target )
-                        .execute();
-                }
+                getLog().debug( output.getAbsolutePath() + " is up to date. Generation skipped" );
+                continue;
             }
+            ensureTargetPackageExists( getGenerateDirectory(), target );
+            bundles.add( type );
+            bundles.add( target );
+        }
+    }
 
-            // messages
-            if ( i18nMessagesBundles != null )
+    /**
+     * @return the default properties file of the bundle, or <code>null</code> if not found in the project
+     */
+    private File getPropertiesFile( String target )
+    {
+        String path = target.replace( '.', File.separatorChar ) + ".properties";
+        for ( Resource resource : getProject().getResources() )
+        {
+            File candidate = new File( resource.getDirectory(), path );
+            if ( candidate.exists() )
             {
-                for ( String target : i18nMessagesBundles )
-                {
-                    ensureTargetPackageExists( getGenerateDirectory(), target );
-                    createJavaCommand()
-                        .setMainClass( "com.google.gwt.i18n.tools.I18NSync" )
-                        .addToClasspath( getClasspath( Artifact.SCOPE_COMPILE ) )
-                        .addToClasspath( getGwtUserJar() )
-                        .addToClasspath( getGwtDevJar() )
-                        .arg( "-out", getGenerateDirectory().getAbsolutePath() )
-                        .arg( "-createMessages" )
-                        .arg( target )
-                        .execute();
-                }
+                return candidate;
             }
         }
-        catch (JavaCommandException e)
+        for ( String sourceRoot : getProject().getCompileSourceRoots() )
         {
-            throw new MojoExecutionException( e.getMessage(), e );
+            File candidate = new File( sourceRoot, path );
+            if ( candidate.exists() )
+            {
+                return candidate;
+            }
         }
+        return null;
     }
 
+    private File getInterfaceFile( String target )
+    {
+        return new File( getGenerateDirectory(), target.replace( '.', File.separatorChar ) + ".java" );
+    }
 
     private void setup()
         throws MojoExecutionException
@@ -0,0 +1,147 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gwt.i18n.tools.I18NSync;
+
+/**
+ * Runs {@link I18NSync} for a batch of resource bundles in a single JVM, used by {@link I18NMojo}.
+ * <p>
+ * Arguments are <code>-out &lt;dir&gt;</code>, optionally <code>-threads &lt;count&gt;</code>, then a list of bundles
+ * each prefixed by <code>-constants</code>, <code>-constantsWithLookup</code> or <code>-messages</code>. I18NSync
+ * generates each interface independently, so bundles are processed concurrently.
+ * <p>
+ * This class runs in a forked JVM, with the GWT SDK on the classpath.
+ *
+ * @since 2.8.0
+ */
+public final class I18NSyncBatch
+{
+    static final String CONSTANTS = "-constants";
+
+    static final String CONSTANTS_WITH_LOOKUP = "-constantsWithLookup";
+
+    static final String MESSAGES = "-messages";
+
+    private I18NSyncBatch()
+    {
+        // main only
+    }
+
+    /**
+     * <p>main.</p>
+     *
+     * @param args the output directory and the bundles to process
+     * @throws java.lang.InterruptedException if interrupted while waiting for the bundles to be processed
+     */
+    public static void main( String[] args )
+        throws InterruptedException
+    {
+        System.exit( run( args ) );
+    }
+
+    /**
+     * Process the bundles, for {@link JavaDaemon} to run this without exiting the JVM.
+     *
+     * @param args the output directory and the bundles to process
+     * @return the exit status
+     * @throws java.lang.InterruptedException if interrupted while waiting for the bundles to be processed
+     */
+    public static int run( String[] args )
+        throws InterruptedException
+    {
+        File out = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        final List<String[]> bundles = new ArrayList<String[]>();
+        for ( int i = 0; i + 1 < args.length; i += 2 )
+        {
+            if ( "-out".equals( args[i] ) )
+            {
+                out = new File( args[i + 1] );
+            }
+            else if ( "-threads".equals( args[i] ) )
+            {
+                threads = Integer.parseInt( args[i + 1] );
+            }
+            else
+            {
+                bundles.add( new String[] { args[i], args[i + 1] } );
+            }
+        }
+
+        final File outDir = out;
+        final AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( threads, bundles.size() ) ) );
+        for ( final String[] bundle : bundles )
+        {
+            executor.execute( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        generate( bundle[0], bundle[1], outDir );
+                    }
+                    catch ( Throwable e )
+                    {
+                        failures.incrementAndGet();
+                        synchronized ( System.err )
+                        {
+                            System.err.println( "Failed to generate interface for " + bundle[1] );
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            } );
+        }
+        executor.shutdown();
+        executor.awaitTermination( Long.MAX_VALUE, TimeUnit.SECONDS );
+        return failures.get() > 0 ? 1 : 0;
+    }
+
+    private static void generate( String type, String className, File outDir )
+        throws Exception
+    {
+        if ( CONSTANTS.equals( type ) )
+        {
+            I18NSync.createConstantsInterfaceFromClassName( className, outDir );
+        }
+        else if ( CONSTANTS_WITH_LOOKUP.equals( type ) )
+        {
+            I18NSync.createConstantsWithLookupInterfaceFromClassName( className, outDir );
+        }
+        else if ( MESSAGES.equals( type ) )
+        {
+            I18NSync.createMessagesInterfaceFromClassName( className, outDir );
+        }
+        else
+        {
+            throw new IllegalArgumentException( "Unknown bundle type " + type );
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.codehaus.mojo.gwt.shell;
  */
 
 import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.Os;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.cli.CommandLineException;
@@ -29,6 +30,8 @@ import org.codehaus.plexus.util.cli.Commandline;
 import org.codehaus.plexus.util.cli.StreamConsumer;
 
 import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -65,27 +68,29 @@ public class JavaCommand
 
     private List<ClassPathProcessor> classPathProcessors = new ArrayList<ClassPathProcessor>();
 
+    private boolean daemon;
+
+    private int daemonIdleTimeout;
+
     /**
-     * A plexus-util StreamConsumer to redirect messages to plugin log
+     * A plexus-util StreamConsumer to redirect messages to, the plugin log when not set
      */
-    private StreamConsumer out = new StreamConsumer()
-    {
-        public void consumeLine( String line )
-        {
-            log.info( line );
-        }
-    };
+    private StreamConsumer out;
 
     /**
-     * A plexus-util StreamConsumer to redirect errors to plugin log
+     * A plexus-util StreamConsumer to redirect errors to, the plugin log when not set
      */
-    private StreamConsumer err = new StreamConsumer()
-    {
-        public void consumeLine( String line )
-        {
-            log.error( line );
-        }
-    };
+    private StreamConsumer err;
+
+    private int maxLogRate;
+
+    private File logDirectory;
+
+    private String logPrefix;
+
+    private String logName;
+
+    private File metricsFile;
 
     /**
      * <p>Getter for the field <code>mainClass</code>.</p>
@@ -323,6 +328,108 @@ public class JavaCommand
         return this;
     }
 
+    /**
+     * <p>isDaemon.</p>
+     *
+     * @return <code>true</code> if the command runs in a reusable daemon JVM
+     */
+    public boolean isDaemon()
+    {
+        return daemon;
+    }
+
+    /**
+     * Run the main class in a long-lived {@link JavaDaemon} JVM shared with the next commands using the same JVM,
+     * JVM arguments, system properties and classpath. The command is forked as usual when a time-out is set, when the
+     * main class can only exit through <code>System.exit</code> (see {@link JavaDaemon}) or when no daemon JVM can be
+     * used.
+     *
+     * @param daemon a boolean.
+     * @return a {@link org.codehaus.mojo.gwt.shell.JavaCommand} object.
+     */
+    public JavaCommand setDaemon( boolean daemon )
+    {
+        this.daemon = daemon;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>daemonIdleTimeout</code>.</p>
+     *
+     * @param daemonIdleTimeout delay, in seconds, after which an idle daemon JVM exits, or <code>0</code> to keep it
+     *            until the end of the build
+     * @return a {@link org.codehaus.mojo.gwt.shell.JavaCommand} object.
+     */
+    public JavaCommand setDaemonIdleTimeout( int daemonIdleTimeout )
+    {
+        this.daemonIdleTimeout = daemonIdleTimeout;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>maxLogRate</code>.</p>
+     *
+     * @param maxLogRate the number of info and debug lines per second of output above which they are not logged, or
+     *            <code>0</code> for no limit
+     * @return this
+     */
+    public JavaCommand setMaxLogRate( int maxLogRate )
+    {
+        this.maxLogRate = maxLogRate;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>logDirectory</code>.</p>
+     *
+     * @param logDirectory the directory to write the full output to, as a gzipped file named after the main class and
+     *            the log name, may be <code>null</code>
+     * @return this
+     */
+    public JavaCommand setLogDirectory( File logDirectory )
+    {
+        this.logDirectory = logDirectory;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>logPrefix</code>.</p>
+     *
+     * @param logPrefix the prefix of the output lines logged, to tell apart commands run concurrently
+     * @return this
+     */
+    public JavaCommand setLogPrefix( String logPrefix )
+    {
+        this.logPrefix = logPrefix;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>logName</code>.</p>
+     *
+     * @param logName the suffix of the log file name, to tell apart the commands of a goal execution that run the same
+     *            main class, like the module compiled, may be <code>null</code>
+     * @return this
+     */
+    public JavaCommand setLogName( String logName )
+    {
+        this.logName = logName;
+        return this;
+    }
+
+    /**
+     * Record the time and memory used by the forked JVM to a file, as properties written by {@link ForkMetrics}. The
+     * command is always forked, not run in a daemon JVM, when set.
+     *
+     * @param metricsFile the file to write the metrics to, may be <code>null</code>
+     * @return this
+     */
+    public JavaCommand setMetricsFile( File metricsFile )
+    {
+        this.metricsFile = metricsFile;
+        return this;
+    }
+
     /**
      * <p>Setter for the field <code>out</code>.</p>
      *
@@ -335,6 +442,18 @@ public class JavaCommand
         return this;
     }
 
+    /**
+     * <p>Setter for the field <code>err</code>.</p>
+     *
+     * @param err a {@link org.codehaus.plexus.util.cli.StreamConsumer} object.
+     * @return a {@link org.codehaus.mojo.gwt.shell.JavaCommand} object.
+     */
+    public JavaCommand setErr( StreamConsumer err )
+    {
+        this.err = err;
+        return this;
+    }
+
     /**
      * <p>addToClasspath.</p>
      *
@@ -451,57 +570,66 @@ public class JavaCommand
             classPathProcessor.postProcessClassPath( classpath );
         }
 
-        List<String> command = new ArrayList<String>();
-        if (this.jvmArgs != null)
+        LogPipeline pipeline = null;
+        StreamConsumer stdout = out;
+        StreamConsumer stderr = err;
+        if ( out == null || err == null )
         {
-            command.addAll( this.jvmArgs );
+            pipeline = new LogPipeline( log, maxLogRate, getLogFile(), logPrefix );
+            stdout = out != null ? out : pipeline.getOut();
+            stderr = err != null ? err : pipeline.getErr();
         }
-        command.add( "-classpath" );
-        List<String> path = new ArrayList<String>( classpath.size() );
-        for ( File file : classpath )
+        try
         {
-            path.add( file.getAbsolutePath() );
+            execute( stdout, stderr );
         }
-        command.add( StringUtils.join( path.iterator(), File.pathSeparator ) );
-        if ( systemProperties != null )
+        finally
         {
-            for ( Map.Entry<?, ?> entry : systemProperties.entrySet() )
+            if ( pipeline != null )
             {
-                command.add( "-D" + entry.getKey() + "=" + entry.getValue() );
+                pipeline.close();
             }
         }
+    }
+
+    private void execute( StreamConsumer stdout, StreamConsumer stderr )
+        throws JavaCommandException
+    {
+        if ( daemon && timeOut <= 0 && metricsFile == null && canRunInDaemon() && executeInDaemon( stdout, stderr ) )
+        {
+            return;
+        }
+
+        List<String> command;
+        if ( metricsFile != null )
+        {
+            metricsFile.delete();
+            metricsFile.getAbsoluteFile().getParentFile().mkdirs();
+            List<File> metricsClasspath = new ArrayList<File>( classpath );
+            metricsClasspath.add( getPluginJar() );
+            command = getJvmCommand( metricsClasspath );
+            command.add( "-D" + ForkMetrics.FILE_PROPERTY + "=" + metricsFile.getAbsolutePath() );
+            command.add( ForkMetrics.class.getName() );
+        }
+        else
+        {
+            command = getJvmCommand( classpath );
+        }
         command.add( mainClass );
         command.addAll( args );
 
         try
         {
-            String[] arguments = command.toArray( new String[command.size()] );
-
-            // On windows, the default Shell will fall into command line length limitation issue
-            // On Unixes, not using a Shell breaks the classpath (NoClassDefFoundError:
-            // com/google/gwt/dev/Compiler).
-            Commandline cmd =
-                Os.isFamily( Os.FAMILY_WINDOWS ) ? new Commandline( new JavaShell() ) : new Commandline();
-
-            cmd.setExecutable( this.getJavaCommand() );
-            cmd.addArguments( arguments );
-            if ( env != null )
-            {
-                for ( Map.Entry<?, ?> entry : env.entrySet() )
-                {
-                    log.debug( "add env " + (String) entry.getKey() + " with value " + (String) entry.getValue() );
-                    cmd.addEnvironment( (String) entry.getKey(), (String) entry.getValue() );
-                }
-            }
+            Commandline cmd = createCommandline( command );
             log.debug( "Execute command :\n" + cmd.toString() );
             int status;
             if ( timeOut > 0 )
             {
-                status = CommandLineUtils.executeCommandLine( cmd, out, err, timeOut );
+                status = CommandLineUtils.executeCommandLine( cmd, stdout, stderr, timeOut );
             }
             else
             {
-                status = CommandLineUtils.executeCommandLine( cmd, out, err );
+                status = CommandLineUtils.executeCommandLine( cmd, stdout, stderr );
             }
 
             if ( status != 0 )
@@ -525,6 +653,181 @@ public class JavaCommand
         }
     }
 
+    /**
+     * @return <code>true</code> if the main class reports its exit status without calling <code>System.exit</code>, as
+     *         required to run it in a daemon JVM
+     */
+    private boolean canRunInDaemon()
+    {
+        try
+        {
+            Class<?> runner = Class.forName( JavaDaemon.getRunner( mainClass ), false, getClass().getClassLoader() );
+            if ( JavaDaemon.getRunMethod( runner ) != null )
+            {
+                return true;
+            }
+        }
+        catch ( ClassNotFoundException e )
+        {
+            // not a GWT or plugin tool
+        }
+        log.debug( mainClass + " can't run in a GWT daemon JVM, forking it" );
+        return false;
+    }
+
+    /**
+     * Run the main class in a daemon JVM.
+     *
+     * @return <code>false</code> if no daemon JVM could be used and the command must be forked
+     * @throws JavaCommandException if the main class failed
+     */
+    private boolean executeInDaemon( StreamConsumer stdout, StreamConsumer stderr )
+        throws JavaCommandException
+    {
+        List<File> daemonClasspath = new ArrayList<File>( classpath );
+        daemonClasspath.add( getPluginJar() );
+        List<String> command = getJvmCommand( daemonClasspath );
+        command.add( JavaDaemon.class.getName() );
+        command.add( String.valueOf( daemonIdleTimeout ) );
+
+        JavaDaemonPool.Worker worker;
+        try
+        {
+            Commandline cmd = createCommandline( command );
+            worker = JavaDaemonPool.acquire( getDaemonKey( cmd ), cmd, daemonIdleTimeout, log );
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Failed to start GWT daemon JVM, falling back to a forked JVM : " + e.getMessage() );
+            return false;
+        }
+        int status;
+        try
+        {
+            status = worker.execute( mainClass, args, stdout, stderr );
+        }
+        catch ( IOException e )
+        {
+            worker.destroy();
+            log.warn( "GWT daemon JVM failed, falling back to a forked JVM : " + e.getMessage() );
+            return false;
+        }
+        JavaDaemonPool.release( worker );
+
+        if ( status == JavaDaemon.UNSUPPORTED )
+        {
+            log.debug( mainClass + " can't run in the GWT daemon JVM with this classpath, forking it" );
+            return false;
+        }
+        if ( status != 0 )
+        {
+            throw new JavaCommandException( "Command [[\n" + mainClass + " " + StringUtils.join( args.iterator(), " " )
+                + "\n]] failed in daemon JVM with status " + status );
+        }
+        return true;
+    }
+
+    /**
+     * @return the gzipped file the full output is written to, or <code>null</code> if no log directory is set
+     */
+    File getLogFile()
+    {
+        if ( logDirectory == null )
+        {
+            return null;
+        }
+        String name = mainClass.substring( mainClass.lastIndexOf( '.' ) + 1 );
+        if ( logName != null )
+        {
+            name += "-" + logName;
+        }
+        name = name.replaceAll( "[^\\w.-]", "_" );
+        return new File( logDirectory, name.substring( 0, Math.min( name.length(), 200 ) ) + ".log.gz" );
+    }
+
+    /**
+     * Get the plugin jar, for main classes of this plugin to be run in a forked JVM. Those must only depend on the JDK
+     * and on the GWT SDK.
+     *
+     * @return the plugin jar, or classes directory
+     */
+    static File getPluginJar()
+    {
+        return FileUtils.toFile( JavaCommand.class.getProtectionDomain().getCodeSource().getLocation() );
+    }
+
+    private String getDaemonKey( Commandline cmd )
+        throws JavaCommandException
+    {
+        StringBuilder key = new StringBuilder( cmd.toString() );
+        if ( env != null )
+        {
+            key.append( env );
+        }
+        try
+        {
+            byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( key.toString().getBytes( "UTF-8" ) );
+            StringBuilder hex = new StringBuilder();
+            for ( int i = 0; i < 8; i++ )
+            {
+                hex.append( Integer.toHexString( ( digest[i] & 0xFF ) | 0x100 ).substring( 1 ) );
+            }
+            return hex.toString();
+        }
+        catch ( Exception e )
+        {
+            throw new JavaCommandException( "Failed to compute GWT daemon key", e );
+        }
+    }
+
+    private List<String> getJvmCommand( List<File> classpath )
+    {
+        List<String> command = new ArrayList<String>();
+        if (this.jvmArgs != null)
+        {
+            command.addAll( this.jvmArgs );
+        }
+        command.add( "-classpath" );
+        List<String> path = new ArrayList<String>( classpath.size() );
+        for ( File file : classpath )
+        {
+            path.add( file.getAbsolutePath() );
+        }
+        command.add( StringUtils.join( path.iterator(), File.pathSeparator ) );
+        if ( systemProperties != null )
+        {
+            for ( Map.Entry<?, ?> entry : systemProperties.entrySet() )
+            {
+                command.add( "-D" + entry.getKey() + "=" + entry.getValue() );
+            }
+        }
+        return command;
+    }
+
+    private Commandline createCommandline( List<String> command )
+        throws JavaCommandException
+    {
+        String[] arguments = command.toArray( new String[command.size()] );
+
+        // On windows, the default Shell will fall into command line length limitation issue
+        // On Unixes, not using a Shell breaks the classpath (NoClassDefFoundError:
+        // com/google/gwt/dev/Compiler).
+        Commandline cmd =
+            Os.isFamily( Os.FAMILY_WINDOWS ) ? new Commandline( new JavaShell() ) : new Commandline();
+
+        cmd.setExecutable( this.getJavaCommand() );
+        cmd.addArguments( arguments );
+        if ( env != null )
+        {
+            for ( Map.Entry<?, ?> entry : env.entrySet() )
+            {
+                log.debug( "add env " + (String) entry.getKey() + " with value " + (String) entry.getValue() );
+                cmd.addEnvironment( (String) entry.getKey(), (String) entry.getValue() );
+            }
+        }
+        return cmd;
+    }
+
     private String getJavaCommand()
         throws JavaCommandException
     {
@@ -0,0 +1,328 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Long-lived worker JVM used by {@link JavaCommand} in daemon mode.
+ * <p>
+ * Requests (a main class and its arguments) are read from stdin and run in-process, one at a time. Their output is sent
+ * back as frames on the original stdout, followed by the exit status. The worker exits when stdin is closed or when it
+ * has been idle for longer than the timeout (in seconds) passed as first argument.
+ * <p>
+ * A <code>System.exit</code> call would end the worker, so main classes are not invoked through their
+ * <code>main</code> method: the worker invokes a <code>public static int run( String[] )</code> method returning the
+ * exit status instead, declared either by the main class itself or by its in-process runner (see
+ * {@link #getRunner(String)}). Other main classes must be forked.
+ * <p>
+ * This class runs in the worker JVM, on top of the project classpath: it must only depend on the JDK.
+ *
+ * @since 2.8.0
+ */
+public final class JavaDaemon
+{
+    /** Frame sent once the worker is ready to accept requests. */
+    static final int READY = 'R';
+
+    /** Frame holding a line written on <code>System.out</code>. */
+    static final int OUT = 'O';
+
+    /** Frame holding a line written on <code>System.err</code>. */
+    static final int ERR = 'E';
+
+    /** Frame holding the exit status of a request. */
+    static final int EXIT = 'X';
+
+    /** Exit status of a request the worker cannot run in-process, for the client to fork it instead. */
+    static final int UNSUPPORTED = -1;
+
+    /** Main classes that exit the JVM when done, with the class running them in-process. */
+    private static final Map<String, String> RUNNERS =
+        Collections.singletonMap( "com.google.gwt.dev.Compiler", "org.codehaus.mojo.gwt.shell.CompilerRunner" );
+
+    private static final String UTF_8 = "UTF-8";
+
+    private static DataOutputStream frames;
+
+    private static volatile long lastActivity = System.currentTimeMillis();
+
+    private static volatile boolean busy;
+
+    private JavaDaemon()
+    {
+        // main only
+    }
+
+    /**
+     * <p>main.</p>
+     *
+     * @param args the idle timeout, in seconds
+     * @throws java.io.IOException if the communication with the client fails
+     */
+    public static void main( String[] args )
+        throws IOException
+    {
+        frames = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( FileDescriptor.out ) ) );
+        FrameOutputStream stdout = new FrameOutputStream( OUT );
+        FrameOutputStream stderr = new FrameOutputStream( ERR );
+        System.setOut( new PrintStream( stdout, true ) );
+        System.setErr( new PrintStream( stderr, true ) );
+
+        final long idleTimeout = args.length > 0 ? Long.parseLong( args[0] ) * 1000L : 0;
+        if ( idleTimeout > 0 )
+        {
+            Thread watchdog = new Thread( "gwt-daemon-watchdog" )
+            {
+                @Override
+                public void run()
+                {
+                    while ( true )
+                    {
+                        try
+                        {
+                            Thread.sleep( Math.min( idleTimeout, 1000L ) );
+                        }
+                        catch ( InterruptedException e )
+                        {
+                            return;
+                        }
+                        if ( !busy && System.currentTimeMillis() - lastActivity > idleTimeout )
+                        {
+                            System.exit( 0 );
+                        }
+                    }
+                }
+            };
+            watchdog.setDaemon( true );
+            watchdog.start();
+        }
+
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( FileDescriptor.in ) ) );
+        writeFrame( READY, new byte[0] );
+        while ( true )
+        {
+            String mainClass;
+            try
+            {
+                mainClass = readString( in );
+            }
+            catch ( EOFException e )
+            {
+                break;
+            }
+            busy = true;
+            String[] arguments = new String[in.readInt()];
+            for ( int i = 0; i < arguments.length; i++ )
+            {
+                arguments[i] = readString( in );
+            }
+
+            int status = run( mainClass, arguments );
+            System.out.flush();
+            System.err.flush();
+            stdout.drain();
+            stderr.drain();
+            ByteArrayOutputStream exit = new ByteArrayOutputStream( 4 );
+            new DataOutputStream( exit ).writeInt( status );
+            writeFrame( EXIT, exit.toByteArray() );
+
+            lastActivity = System.currentTimeMillis();
+            busy = false;
+        }
+        System.exit( 0 );
+    }
+
+    /**
+     * Get the class running a main class in-process, through a <code>public static int run( String[] )</code> method.
+     *
+     * @param mainClass the main class
+     * @return the name of the runner class, the main class itself if it has no dedicated runner
+     */
+    static String getRunner( String mainClass )
+    {
+        String runner = RUNNERS.get( mainClass );
+        return runner != null ? runner : mainClass;
+    }
+
+    /**
+     * Get the <code>run</code> method of a runner class.
+     *
+     * @param runner the runner class
+     * @return the method, or <code>null</code> if the class has none and must be run through its <code>main</code>
+     *         method in a forked JVM
+     */
+    static Method getRunMethod( Class<?> runner )
+    {
+        try
+        {
+            Method run = runner.getMethod( "run", String[].class );
+            return Modifier.isStatic( run.getModifiers() ) && run.getReturnType() == int.class ? run : null;
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return null;
+        }
+    }
+
+    private static int run( String mainClass, String[] arguments )
+    {
+        Method run;
+        try
+        {
+            run = getRunMethod( Class.forName( getRunner( mainClass ) ) );
+        }
+        catch ( ClassNotFoundException e )
+        {
+            run = null;
+        }
+        if ( run == null )
+        {
+            return UNSUPPORTED;
+        }
+        try
+        {
+            return ( (Integer) run.invoke( null, new Object[] { arguments } ) ).intValue();
+        }
+        catch ( InvocationTargetException e )
+        {
+            e.getCause().printStackTrace();
+            return 1;
+        }
+        catch ( Exception e )
+        {
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private static void writeFrame( int type, byte[] data )
+    {
+        synchronized ( frames )
+        {
+            try
+            {
+                frames.writeByte( type );
+                frames.writeInt( data.length );
+                frames.write( data );
+                frames.flush();
+            }
+            catch ( IOException e )
+            {
+                // client is gone, stdin will be closed too
+            }
+        }
+    }
+
+    /**
+     * Read a length-prefixed UTF-8 string, as written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the stream to read from
+     * @return the string
+     * @throws IOException on communication failure
+     */
+    static String readString( DataInputStream in )
+        throws IOException
+    {
+        byte[] data = new byte[in.readInt()];
+        in.readFully( data );
+        return new String( data, UTF_8 );
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string. {@link DataOutputStream#writeUTF(String)} is limited to 64k, which a GWT
+     * command line argument may exceed.
+     *
+     * @param out the stream to write to
+     * @param value the string
+     * @throws IOException on communication failure
+     */
+    static void writeString( DataOutputStream out, String value )
+        throws IOException
+    {
+        byte[] data = value.getBytes( UTF_8 );
+        out.writeInt( data.length );
+        out.write( data );
+    }
+
+    /**
+     * Turns each line written to a redirected standard stream into a frame.
+     */
+    private static final class FrameOutputStream
+        extends OutputStream
+    {
+        private final int type;
+
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream( 256 );
+
+        FrameOutputStream( int type )
+        {
+            this.type = type;
+        }
+
+        @Override
+        public synchronized void write( int b )
+        {
+            if ( b == '\n' )
+            {
+                drain();
+            }
+            else if ( b != '\r' )
+            {
+                line.write( b );
+            }
+        }
+
+        synchronized void drain()
+        {
+            if ( line.size() > 0 )
+            {
+                // re-encode using UTF-8 as the client and worker default encodings may differ
+                byte[] data;
+                try
+                {
+                    data = new String( line.toByteArray() ).getBytes( UTF_8 );
+                }
+                catch ( IOException e )
+                {
+                    data = line.toByteArray();
+                }
+                line.reset();
+                writeFrame( type, data );
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+import org.codehaus.plexus.util.cli.StreamPumper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link JavaDaemon} worker JVMs started by {@link JavaCommand} in daemon mode, so that they are reused by
+ * the next goals and modules of the build. Workers are keyed by the command line used to start them (JVM, JVM
+ * arguments, system properties and a hash of the classpath). A worker runs one request at a time, concurrent requests
+ * get their own worker.
+ *
+ * @since 2.8.0
+ */
+final class JavaDaemonPool
+{
+    private static final Map<String, LinkedList<Worker>> idleWorkers = new HashMap<String, LinkedList<Worker>>();
+
+    private static final List<Worker> allWorkers = new ArrayList<Worker>();
+
+    static
+    {
+        Runtime.getRuntime().addShutdownHook( new Thread( "gwt-daemon-shutdown" )
+        {
+            @Override
+            public void run()
+            {
+                shutdown();
+            }
+        } );
+    }
+
+    private JavaDaemonPool()
+    {
+        // static only
+    }
+
+    /**
+     * Get an idle worker for this key, or start a new one.
+     *
+     * @param key the worker key
+     * @param cmd command line to start a {@link JavaDaemon} worker
+     * @param idleTimeout the worker idle timeout, in seconds, <code>0</code> if it only exits with the build
+     * @param log the plugin log
+     * @return the worker
+     * @throws IOException if the worker failed to start
+     * @throws CommandLineException if the worker failed to start
+     */
+    static Worker acquire( String key, Commandline cmd, int idleTimeout, Log log )
+        throws IOException, CommandLineException
+    {
+        synchronized ( JavaDaemonPool.class )
+        {
+            LinkedList<Worker> idle = idleWorkers.get( key );
+            while ( idle != null && !idle.isEmpty() )
+            {
+                Worker worker = idle.removeFirst();
+                // leave some margin so that we don't pick a worker about to exit on its own
+                long expired = System.currentTimeMillis() - idleTimeout * 900L;
+                if ( ( idleTimeout <= 0 || worker.lastUsed > expired ) && worker.isAlive() )
+                {
+                    log.debug( "Reuse GWT daemon JVM " + key );
+                    return worker;
+                }
+                worker.destroy();
+            }
+        }
+
+        log.info( "Starting GWT daemon JVM " + key );
+        log.debug( "Execute command :\n" + cmd.toString() );
+        Worker worker = new Worker( key, cmd.execute(), log );
+        int ready;
+        try
+        {
+            ready = worker.in.readByte();
+            worker.in.readFully( new byte[worker.in.readInt()] );
+        }
+        catch ( EOFException e )
+        {
+            ready = -1;
+        }
+        if ( ready != JavaDaemon.READY )
+        {
+            int status = worker.waitFor();
+            worker.destroy();
+            throw new IOException( "GWT daemon JVM exited with status " + status );
+        }
+        synchronized ( JavaDaemonPool.class )
+        {
+            allWorkers.add( worker );
+        }
+        return worker;
+    }
+
+    /**
+     * Give back a worker after a successful request, for later reuse.
+     *
+     * @param worker the worker
+     */
+    static synchronized void release( Worker worker )
+    {
+        worker.lastUsed = System.currentTimeMillis();
+        LinkedList<Worker> idle = idleWorkers.get( worker.key );
+        if ( idle == null )
+        {
+            idle = new LinkedList<Worker>();
+            idleWorkers.put( worker.key, idle );
+        }
+        idle.addFirst( worker );
+    }
+
+    private static synchronized void shutdown()
+    {
+        // destroy() removes the worker from allWorkers
+        for ( Worker worker : new ArrayList<Worker>( allWorkers ) )
+        {
+            worker.destroy();
+        }
+        idleWorkers.clear();
+    }
+
+    /**
+     * A running {@link JavaDaemon} JVM.
+     */
+    static final class Worker
+    {
+        private final String key;
+
+        private final Process process;
+
+        private final DataInputStream in;
+
+        private final DataOutputStream out;
+
+        private long lastUsed;
+
+        Worker( String key, Process process, final Log log )
+        {
+            this.key = key;
+            this.process = process;
+            this.in = new DataInputStream( new BufferedInputStream( process.getInputStream() ) );
+            this.out = new DataOutputStream( new BufferedOutputStream( process.getOutputStream() ) );
+            // anything written directly on the worker stderr (JVM warnings, crash)
+            StreamPumper errors = new StreamPumper( process.getErrorStream(), new StreamConsumer()
+            {
+                public void consumeLine( String line )
+                {
+                    log.debug( "[daemon] " + line );
+                }
+            } );
+            errors.setDaemon( true );
+            errors.start();
+        }
+
+        /**
+         * Run a main class in the worker JVM.
+         *
+         * @param mainClass the main class
+         * @param args the arguments
+         * @param stdout consumer for the standard output lines
+         * @param stderr consumer for the error output lines
+         * @return the exit status
+         * @throws IOException on communication failure with the worker, which is then unusable
+         */
+        int execute( String mainClass, List<String> args, StreamConsumer stdout, StreamConsumer stderr )
+            throws IOException
+        {
+            JavaDaemon.writeString( out, mainClass );
+            out.writeInt( args.size() );
+            for ( String arg : args )
+            {
+                JavaDaemon.writeString( out, arg );
+            }
+            out.flush();
+
+            while ( true )
+            {
+                int type = in.readByte();
+                if ( type == JavaDaemon.EXIT )
+                {
+                    in.readInt();
+                    return in.readInt();
+                }
+                String line = JavaDaemon.readString( in );
+                if ( type == JavaDaemon.ERR )
+                {
+                    stderr.consumeLine( line );
+                }
+                else
+                {
+                    stdout.consumeLine( line );
+                }
+            }
+        }
+
+        boolean isAlive()
+        {
+            try
+            {
+                process.exitValue();
+                return false;
+            }
+            catch ( IllegalThreadStateException e )
+            {
+                return true;
+            }
+        }
+
+        int waitFor()
+        {
+            try
+            {
+                return process.waitFor();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+
+        void destroy()
+        {
+            try
+            {
+                // closing stdin lets the worker exit on its own
+                out.close();
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+            process.destroy();
+            synchronized ( JavaDaemonPool.class )
+            {
+                allWorkers.remove( this );
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Forwards the output of a forked GWT tool to the Maven log without ever blocking the tool on a full pipe.
+ * <p>
+ * Lines are parsed for the GWT tree logger level (<code>[ERROR]</code>, <code>[WARN]</code>...) and queued in a
+ * bounded queue, that a single thread drains in batches to the Maven log. Above <code>maxRate</code> lines per second,
+ * info and debug lines are dropped rather than queued, as they are when the queue is full; the number of lines
+ * dropped is then reported. Errors and warnings are never dropped: when the queue is full, they are logged right away
+ * from the reading thread. The full output can be written to a gzipped log file: lines are handed to a dedicated
+ * thread through an unbounded queue, so that a slow disk never holds up the reading threads.
+ *
+ * @since 2.8.0
+ */
+class LogPipeline
+{
+    private static final int CAPACITY = 10000;
+
+    private static final int BATCH = 512;
+
+    private static final int ERROR = 0;
+
+    private static final int WARN = 1;
+
+    private static final int INFO = 2;
+
+    private static final int DEBUG = 3;
+
+    private static final String[] MARKERS = { "[ERROR]", "[WARN]", "[INFO]", "[TRACE]", "[DEBUG]", "[SPAM]", "[ALL]" };
+
+    private static final int[] LEVELS = { ERROR, WARN, INFO, DEBUG, DEBUG, DEBUG, DEBUG };
+
+    private final Log log;
+
+    private final int maxRate;
+
+    private final BlockingQueue<Line> queue = new ArrayBlockingQueue<Line>( CAPACITY );
+
+    private final File logFile;
+
+    private final String prefix;
+
+    private final Writer writer;
+
+    private final BlockingQueue<String> fileQueue = new LinkedBlockingQueue<String>();
+
+    private final Thread drainer;
+
+    private final Thread fileThread;
+
+    private long second;
+
+    private int count;
+
+    private int dropped;
+
+    private volatile boolean closed;
+
+    /**
+     * @param log the Maven log
+     * @param maxRate the number of info and debug lines per second above which they are dropped, or <code>0</code> for
+     *            no limit
+     * @param logFile the gzipped file to write the full output to, may be <code>null</code>
+     */
+    LogPipeline( Log log, int maxRate, File logFile )
+    {
+        this( log, maxRate, logFile, null );
+    }
+
+    /**
+     * @param log the Maven log
+     * @param maxRate the number of info and debug lines per second above which they are dropped, or <code>0</code> for
+     *            no limit
+     * @param logFile the gzipped file to write the full output to, may be <code>null</code>
+     * @param prefix the prefix of the lines logged to the Maven log, to tell concurrent tools apart, may be
+     *            <code>null</code>
+     */
+    LogPipeline( Log log, int maxRate, File logFile, String prefix )
+    {
+        this.log = log;
+        this.maxRate = maxRate;
+        this.prefix = prefix != null ? prefix : "";
+        Writer fileWriter = null;
+        if ( logFile != null )
+        {
+            try
+            {
+                logFile.getAbsoluteFile().getParentFile().mkdirs();
+                fileWriter =
+                    new BufferedWriter( new OutputStreamWriter( new GZIPOutputStream( new FileOutputStream( logFile ),
+                                                                                      8192 ), "UTF-8" ), 65536 );
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Failed to create log file " + logFile + ": " + e.getMessage() );
+            }
+        }
+        this.logFile = fileWriter != null ? logFile : null;
+        this.writer = fileWriter;
+        drainer = new Thread( "gwt-log-pipeline" )
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        };
+        drainer.setDaemon( true );
+        drainer.start();
+        if ( writer != null )
+        {
+            this.fileThread = new Thread( "gwt-log-file" )
+            {
+                @Override
+                public void run()
+                {
+                    writeFile();
+                }
+            };
+            this.fileThread.setDaemon( true );
+            this.fileThread.start();
+        }
+        else
+        {
+            this.fileThread = null;
+        }
+    }
+
+    /**
+     * @return the consumer for the standard output, info level unless the line tells otherwise
+     */
+    StreamConsumer getOut()
+    {
+        return new Consumer( INFO );
+    }
+
+    /**
+     * @return the consumer for the error output, error level unless the line tells otherwise
+     */
+    StreamConsumer getErr()
+    {
+        return new Consumer( ERROR );
+    }
+
+    /**
+     * Log the remaining lines and close the log file.
+     */
+    void close()
+    {
+        closed = true;
+        try
+        {
+            drainer.join();
+            if ( fileThread != null )
+            {
+                fileThread.join();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        synchronized ( this )
+        {
+            reportDropped();
+            for ( Line line = queue.poll(); line != null; line = queue.poll() )
+            {
+                log( line );
+            }
+            if ( writer != null )
+            {
+                try
+                {
+                    writer.close();
+                }
+                catch ( IOException e )
+                {
+                    log.warn( "Failed to write log file " + logFile + ": " + e.getMessage() );
+                }
+            }
+        }
+    }
+
+    private void drain()
+    {
+        List<Line> batch = new ArrayList<Line>( BATCH );
+        while ( true )
+        {
+            try
+            {
+                Line first = queue.poll( 100, TimeUnit.MILLISECONDS );
+                if ( first == null )
+                {
+                    if ( closed )
+                    {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add( first );
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            queue.drainTo( batch, BATCH - 1 );
+            for ( Line line : batch )
+            {
+                log( line );
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeFile()
+    {
+        List<String> batch = new ArrayList<String>( BATCH );
+        try
+        {
+            while ( true )
+            {
+                String first;
+                try
+                {
+                    first = fileQueue.poll( 100, TimeUnit.MILLISECONDS );
+                }
+                catch ( InterruptedException e )
+                {
+                    return;
+                }
+                if ( first == null )
+                {
+                    if ( closed )
+                    {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add( first );
+                fileQueue.drainTo( batch, BATCH - 1 );
+                for ( String text : batch )
+                {
+                    writer.write( text );
+                    writer.write( '\n' );
+                }
+                batch.clear();
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to write log file " + logFile + ": " + e.getMessage() );
+            fileQueue.clear();
+        }
+    }
+
+    private void log( Line line )
+    {
+        switch ( line.level )
+        {
+            case ERROR:
+                log.error( line.text );
+                break;
+            case WARN:
+                log.warn( line.text );
+                break;
+            case INFO:
+                log.info( line.text );
+                break;
+            default:
+                log.debug( line.text );
+        }
+    }
+
+    private void consume( String text, int defaultLevel )
+    {
+        if ( writer != null )
+        {
+            fileQueue.offer( text );
+        }
+
+        int level = getLevel( text, defaultLevel );
+        if ( level == DEBUG && !log.isDebugEnabled() )
+        {
+            return;
+        }
+        if ( level >= INFO && !withinRate() )
+        {
+            return;
+        }
+        Line line = new Line( level, prefix.length() > 0 ? prefix + text : text );
+        if ( !queue.offer( line ) )
+        {
+            if ( level <= WARN )
+            {
+                // ahead of the queued lines, but never lost
+                log( line );
+            }
+            else
+            {
+                synchronized ( this )
+                {
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Count an info or debug line against the rate limit.
+     *
+     * @return <code>false</code> if the line is above the limit and must be dropped
+     */
+    private synchronized boolean withinRate()
+    {
+        if ( maxRate <= 0 )
+        {
+            return true;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        if ( now != second )
+        {
+            second = now;
+            count = 0;
+            reportDropped();
+        }
+        if ( ++count > maxRate )
+        {
+            dropped++;
+            return false;
+        }
+        return true;
+    }
+
+    private void reportDropped()
+    {
+        if ( dropped > 0 )
+        {
+            String message = prefix + dropped + " lines of output not logged" + ( logFile != null ? ", see " + logFile : "" );
+            dropped = 0;
+            if ( !queue.offer( new Line( WARN, message ) ) )
+            {
+                log.warn( message );
+            }
+        }
+    }
+
+    /**
+     * Get the GWT tree logger level of a line, that is the first bracketed marker of the line after indentation.
+     */
+    private static int getLevel( String text, int defaultLevel )
+    {
+        int start = 0;
+        while ( start < text.length() && text.charAt( start ) == ' ' )
+        {
+            start++;
+        }
+        if ( start == text.length() || text.charAt( start ) != '[' )
+        {
+            return defaultLevel;
+        }
+        for ( int i = 0; i < MARKERS.length; i++ )
+        {
+            if ( text.startsWith( MARKERS[i], start ) )
+            {
+                return LEVELS[i];
+            }
+        }
+        return defaultLevel;
+    }
+
+    private class Consumer
+        implements StreamConsumer
+    {
+        private final int level;
+
+        Consumer( int level )
+        {
+            this.level = level;
+        }
+
+        public void consumeLine( String line )
+        {
+            consume( line, level );
+        }
+    }
+
+    private static class Line
+    {
+        final int level;
+
+        final String text;
+
+        Line( int level, String text )
+        {
+            this.level = level;
+            this.text = text;
+        }
+    }
+}
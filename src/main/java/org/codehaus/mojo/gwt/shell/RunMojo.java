@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -38,6 +39,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.gwt.utils.FileSynchronizer;
 import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
 import org.codehaus.plexus.archiver.ArchiverException;
 import org.codehaus.plexus.archiver.UnArchiver;
@@ -276,6 +278,25 @@ public class RunMojo
     @Parameter(defaultValue = "NONE", property = "gwt.compiler.methodNameDisplayMode")
     private String methodNameDisplayMode;
 
+    /**
+     * Directory of the files recording the classes and libraries copied to the exploded webapp, to only copy the
+     * modified ones on next run and delete the stale ones.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-run", readonly = true)
+    private File syncStateDirectory;
+
+    /**
+     * Number of files to copy concurrently to the exploded webapp.
+     * <p>
+     * Can be set from command line using '-Dgwt.run.syncThreads=n'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "4", property = "gwt.run.syncThreads")
+    private int syncThreads;
+
     /**
      * <p>getStartupUrl.</p>
      *
@@ -324,8 +345,10 @@ public class RunMojo
     public void doExecute( )
         throws MojoExecutionException, MojoFailureException
     {
+        // DevMode is a long-running interactive process, always fork it
         JavaCommand cmd = createJavaCommand()
-            .setMainClass( "com.google.gwt.dev.DevMode" );
+            .setMainClass( "com.google.gwt.dev.DevMode" )
+            .setDaemon( false );
 
         if ( gwtSdkFirstInClasspath )
         {
@@ -601,35 +624,53 @@ public class RunMojo
         {
             getLog().warn( "Your POM <build><outputdirectory> does not match your "
                                 + "hosted webapp WEB-INF/classes folder for GWT Hosted browser to see your classes." );
-            try
-            {
-                FileUtils.copyDirectoryStructure( buildOutputDirectory, classes );
-            }
-            catch ( IOException e )
+            Map<String, File> files = new LinkedHashMap<String, File>();
+            if ( buildOutputDirectory.isDirectory() )
             {
-                throw new MojoExecutionException( "Failed to copy classes to " + classes , e );
+                DirectoryScanner scanner = new DirectoryScanner();
+                scanner.setBasedir( buildOutputDirectory );
+                scanner.scan();
+                for ( String file : scanner.getIncludedFiles() )
+                {
+                    files.put( file, new File( buildOutputDirectory, file ) );
+                }
             }
+            synchronize( files, classes, "classes.properties" );
         }
 
         File lib = new File( hostedWebapp, "WEB-INF/lib" );
         lib.mkdirs();
 
-        Collection<Artifact> artifacts = getProjectRuntimeArtifacts();
-        for ( Artifact artifact : artifacts )
+        Map<String, File> jars = new LinkedHashMap<String, File>();
+        for ( Artifact artifact : getProjectRuntimeArtifacts() )
         {
-            try
+            // Using m2eclipse with "resolve workspace dependencies" the artifact is the buildOutputDirectory
+            if ( ! artifact.getFile().isDirectory() )
             {
-                // Using m2eclipse with "resolve workspace dependencies" the artifact is the buildOutputDirectory
-                if ( ! artifact.getFile().isDirectory() )
-                {
-                    FileUtils.copyFileToDirectory( artifact.getFile(), lib );
-                }
-            }
-            catch ( IOException e )
-            {
-                throw new MojoExecutionException( "Failed to copy runtime dependency " + artifact, e );
+                jars.put( artifact.getFile().getName(), artifact.getFile() );
             }
         }
+        synchronize( jars, lib, "lib.properties" );
+    }
+
+    /**
+     * Only copy the files modified since the last run, and delete the ones copied before that are gone.
+     */
+    private void synchronize( Map<String, File> files, File targetDirectory, String stateFile )
+        throws MojoExecutionException
+    {
+        FileSynchronizer synchronizer =
+            new FileSynchronizer( new File( syncStateDirectory, stateFile ) ).setThreads( syncThreads );
+        try
+        {
+            synchronizer.synchronize( files, targetDirectory );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to copy files to " + targetDirectory, e );
+        }
+        getLog().debug( "Copied " + synchronizer.getCopied() + " of " + files.size() + " files to " + targetDirectory
+            + ", deleted " + synchronizer.getDeleted() );
     }
 
     /**
@@ -27,9 +27,15 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.model.Resource;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.gwt.utils.DirectoryWatcher;
+import org.codehaus.mojo.gwt.utils.GwtModuleReaderException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Runs GWT modules with Super Dev Mode.
@@ -133,6 +139,40 @@ public class SuperDevModeMojo extends AbstractGwtShellMojo
     @Parameter(property = "gwt.codeServer.launcherDir")
     private File launcherDir;
 
+    /**
+     * Watch the source and resource directories, and ask the code server to recompile the modules as soon as a file
+     * changes, so that the compile is done by the time the browser is refreshed. Requires
+     * <code>recompileParameters</code>.
+     * <p>
+     * Can be set from command line using '-Dgwt.codeServer.watch=true'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.codeServer.watch")
+    private boolean watch;
+
+    /**
+     * Delay between two checks of the watched directories for changes, in milliseconds.
+     * <p>
+     * Can be set from command line using '-Dgwt.codeServer.watchInterval=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "500", property = "gwt.codeServer.watchInterval")
+    private int watchInterval;
+
+    /**
+     * Binding properties of the permutation to recompile on changes, as an URL query string, for instance
+     * <code>user.agent=gecko1_8</code>. Must match the browser used for development, so there is no default: without
+     * it, <code>watch</code> does not recompile anything.
+     * <p>
+     * Can be set from command line using '-Dgwt.codeServer.recompileParameters=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(property = "gwt.codeServer.recompileParameters")
+    private String recompileParameters;
+
     /**
      * The MavenProject executed by the "process-classes" phase.
      */
@@ -144,8 +184,10 @@ public class SuperDevModeMojo extends AbstractGwtShellMojo
     public void doExecute()
         throws MojoExecutionException, MojoFailureException
     {
+        // CodeServer is a long-running interactive process, always fork it
         JavaCommand cmd = createJavaCommand()
-            .setMainClass( "com.google.gwt.dev.codeserver.CodeServer" );
+            .setMainClass( "com.google.gwt.dev.codeserver.CodeServer" )
+            .setDaemon( false );
 
         if ( gwtSdkFirstInClasspath )
         {
@@ -204,6 +246,18 @@ public class SuperDevModeMojo extends AbstractGwtShellMojo
             cmd.arg( module );
         }
 
+        CodeServerRecompiler recompiler = null;
+        DirectoryWatcher watcher = null;
+        if ( watch && ( recompileParameters == null || recompileParameters.length() == 0 ) )
+        {
+            getLog().warn( "No recompileParameters set for the browser used for development, "
+                + "not watching sources for changes" );
+        }
+        else if ( watch )
+        {
+            recompiler = new CodeServerRecompiler( getCodeServerUrl(), recompileParameters, getModulePaths(), getLog() );
+            watcher = startWatcher( recompiler );
+        }
         try
         {
             cmd.execute();
@@ -212,6 +266,75 @@ public class SuperDevModeMojo extends AbstractGwtShellMojo
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
+        finally
+        {
+            if ( watcher != null )
+            {
+                watcher.stop();
+                recompiler.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return the code server URL, ending with a '/'
+     */
+    private String getCodeServerUrl()
+    {
+        String host = bindAddress == null || bindAddress.length() == 0 || "0.0.0.0".equals( bindAddress )
+                        ? "localhost" : bindAddress;
+        return "http://" + host + ":" + ( codeServerPort != null ? codeServerPort : 9876 ) + "/";
+    }
+
+    /**
+     * @return the output names of the modules, as known by the code server
+     */
+    private String[] getModulePaths()
+        throws MojoExecutionException
+    {
+        String[] modules = getModules();
+        String[] paths = new String[modules.length];
+        for ( int i = 0; i < modules.length; i++ )
+        {
+            try
+            {
+                paths[i] = readModule( modules[i] ).getPath();
+            }
+            catch ( GwtModuleReaderException e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+        }
+        return paths;
+    }
+
+    private DirectoryWatcher startWatcher( final CodeServerRecompiler recompiler )
+    {
+        List<File> roots = new ArrayList<File>();
+        for ( String root : getProject().getCompileSourceRoots() )
+        {
+            roots.add( new File( root ) );
+        }
+        for ( Resource resource : getProject().getResources() )
+        {
+            roots.add( new File( resource.getDirectory() ) );
+        }
+
+        DirectoryWatcher watcher = new DirectoryWatcher( roots, watchInterval, new DirectoryWatcher.Listener()
+        {
+            public void filesChanged( Set<File> changed )
+            {
+                getLog().info( changed.size() + " file(s) changed, recompiling" );
+                for ( File file : changed )
+                {
+                    getLog().debug( "  " + file );
+                }
+                recompiler.requestRecompile();
+            }
+        } );
+        getLog().info( "Watching " + roots + " for changes" );
+        watcher.start();
+        return watcher;
     }
 
     /**
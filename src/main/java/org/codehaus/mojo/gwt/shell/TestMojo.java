@@ -29,11 +29,28 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.surefire.report.ReporterManager;
 import org.codehaus.mojo.gwt.test.MavenTestRunner;
 import org.codehaus.mojo.gwt.test.TestTemplate;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Mimic surefire to run GWTTestCases during integration-test phase, until SUREFIRE-508 is fixed
@@ -388,8 +405,49 @@ public class TestMojo
     @Parameter(defaultValue = "NONE")
     private String jsInteropMode;
 
+    /**
+     * How test classes are distributed across forked JVMs.
+     * <p>
+     * With <code>always</code>, each test class runs in its own JVM. With <code>module</code>, test classes are grouped
+     * by the GWT module returned by their <code>getModuleName()</code> method, and each group runs in a single JVM, so
+     * that the module is compiled once and <code>-batch module</code> applies to the whole group. A test class whose
+     * module can't be found in its source code, like a suite, still runs in its own JVM. Reports are written for each
+     * test class in both cases.
+     * <p>
+     * Can be set from command line using '-Dgwt.test.forkMode=...'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = FORK_ALWAYS, property = "gwt.test.forkMode")
+    private String forkMode;
+
+    private static final String FORK_ALWAYS = "always";
+
+    private static final String FORK_MODULE = "module";
+
+    private static final Pattern TEST_SUITE = Pattern.compile( "<testsuite\\s[^>]*>" );
+
+    private static final Pattern MODULE_NAME =
+        Pattern.compile( "getModuleName\\s*\\(\\s*\\)\\s*\\{\\s*return\\s*\"([\\w.]+)\"" );
+
+    /**
+     * Number of JVMs running tests concurrently. Each test class (or group of test classes, see <code>forkMode</code>)
+     * runs in its own JVM, and those JVMs are distributed across <code>forkCount</code> slots, each with its own
+     * war, work and report directories under <code>target/gwt-test-forks</code>. Reports are moved to
+     * <code>reportsDirectory</code> once a JVM completes. A value of 0 uses one slot per available processor.
+     * <p>
+     * Can be set from command line using '-Dgwt.test.forkCount=n'
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "1", property = "gwt.test.forkCount")
+    private int forkCount;
+
     /** failures counter */
-    private int failures;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /** test classpath, shared by all forks */
+    private Collection<File> testClasspath;
 
     /** {@inheritDoc} */
     @Override
@@ -400,16 +458,56 @@ public class TestMojo
         {
             return;
         }
+        if ( !FORK_ALWAYS.equals( forkMode ) && !FORK_MODULE.equals( forkMode ) )
+        {
+            throw new MojoExecutionException( "Unsupported forkMode " + forkMode + ", use " + FORK_ALWAYS + " or "
+                + FORK_MODULE );
+        }
+
+        // test classes to run in the same JVM, by GWT module
+        final Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
         new TestTemplate( getProject(), includes, excludes, new TestTemplate.CallBack()
         {
             public void doWithTest( File sourceDir, String test )
                 throws MojoExecutionException
             {
-                forkToRunTest( test );
+                String className = test.substring( 0, test.length() - 5 );
+                className = StringUtils.replace( className, File.separator, "." );
+                String module = FORK_MODULE.equals( forkMode ) ? getModuleName( new File( sourceDir, test ) ) : null;
+                if ( module == null )
+                {
+                    groups.put( className, Collections.singletonList( className ) );
+                    return;
+                }
+                List<String> group = groups.get( module );
+                if ( group == null )
+                {
+                    group = new ArrayList<String>();
+                    groups.put( module, group );
+                }
+                group.add( className );
             }
         } );
+        // a group is a single test class or the test classes of a module
+        int forks = Math.min( forkCount > 0 ? forkCount : Runtime.getRuntime().availableProcessors(), groups.size() );
+        if ( forks > 1 )
+        {
+            runInParallel( groups, forks );
+        }
+        else
+        {
+            for ( Map.Entry<String, List<String>> group : groups.entrySet() )
+            {
+                if ( group.getValue().size() > 1 )
+                {
+                    getLog().info( "Running " + group.getValue().size() + " test classes for module "
+                        + group.getKey() );
+                }
+                forkToRunTest( group.getKey(), group.getValue(), new File( out ), workDir, reportsDirectory, null );
+            }
+        }
 
-        if ( failures > 0 )
+        if ( failures.get() > 0 )
         {
             if ( testFailureIgnore )
             {
@@ -424,24 +522,161 @@ public class TestMojo
     }
 
     /**
-     * @param test the test to run
+     * @param testSource the test source file
+     * @return the GWT module of the test, or <code>null</code> if it can't be found from the source
      * @throws MojoExecutionException some error occured
      */
-    private void forkToRunTest( String test )
+    private String getModuleName( File testSource )
         throws MojoExecutionException
     {
-        test = test.substring( 0, test.length() - 5 );
-        test = StringUtils.replace( test, File.separator, "." );
         try
         {
-            File outFile = new File(out);
-            if (outFile.isAbsolute())
+            Matcher matcher = MODULE_NAME.matcher( FileUtils.fileRead( testSource ) );
+            return matcher.find() ? matcher.group( 1 ) : null;
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to read test source " + testSource, e );
+        }
+    }
+
+    /**
+     * Run the groups of test classes with a pool of JVM slots.
+     *
+     * @param groups the test classes to run in the same JVM
+     * @param forks the number of concurrent JVMs
+     * @throws MojoExecutionException some error occured
+     */
+    private void runInParallel( Map<String, List<String>> groups, int forks )
+        throws MojoExecutionException
+    {
+        getLog().info( "Running " + groups.size() + " test JVMs, " + forks + " at a time" );
+        final File forksDirectory = new File( getProject().getBuild().getDirectory(), "gwt-test-forks" );
+        final BlockingQueue<Integer> slots = new ArrayBlockingQueue<Integer>( forks );
+        for ( int i = 0; i < forks; i++ )
+        {
+            slots.add( Integer.valueOf( i ) );
+        }
+        reportsDirectory.mkdirs();
+        final int[] totals = new int[4];
+
+        ExecutorService executor = Executors.newFixedThreadPool( forks );
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for ( final Map.Entry<String, List<String>> group : groups.entrySet() )
+        {
+            results.add( executor.submit( new Callable<Void>()
             {
-                outFile.mkdirs();
+                public Void call()
+                    throws Exception
+                {
+                    Integer slot = slots.take();
+                    try
+                    {
+                        File slotDirectory = new File( forksDirectory, slot.toString() );
+                        File reports = new File( slotDirectory, "reports" );
+                        FileUtils.deleteDirectory( reports );
+                        forkToRunTest( group.getKey(), group.getValue(), new File( slotDirectory, "war" ),
+                                       new File( slotDirectory, "work" ), reports, "[fork-" + slot + "] " );
+                        collectReports( reports, totals );
+                    }
+                    finally
+                    {
+                        slots.put( slot );
+                    }
+                    return null;
+                }
+            } ) );
+        }
+        executor.shutdown();
+        try
+        {
+            for ( Future<Void> result : results )
+            {
+                result.get();
             }
-            else
+        }
+        catch ( InterruptedException e )
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while running GWT tests", e );
+        }
+        catch ( ExecutionException e )
+        {
+            executor.shutdownNow();
+            throw new MojoExecutionException( "Failed to run GWT tests", e.getCause() );
+        }
+        getLog().info( "Tests run: " + totals[0] + ", Failures: " + totals[1] + ", Errors: " + totals[2]
+            + ", Skipped: " + totals[3] );
+    }
+
+    /**
+     * Move the reports of a fork to the reports directory, and add their test counts to the totals.
+     *
+     * @param reports the reports directory of the fork
+     * @param totals tests, failures, errors and skipped tests counts
+     * @throws IOException failed to move the reports
+     */
+    private void collectReports( File reports, int[] totals )
+        throws IOException
+    {
+        File[] files = reports.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( file.getName().startsWith( "TEST-" ) && file.getName().endsWith( ".xml" ) )
             {
-                new File( getProject().getBasedir(), out ).mkdirs();
+                Matcher matcher = TEST_SUITE.matcher( FileUtils.fileRead( file, "UTF-8" ) );
+                if ( matcher.find() )
+                {
+                    String testSuite = matcher.group();
+                    synchronized ( totals )
+                    {
+                        totals[0] += getCount( testSuite, "tests" );
+                        totals[1] += getCount( testSuite, "failures" );
+                        totals[2] += getCount( testSuite, "errors" );
+                        totals[3] += getCount( testSuite, "skipped" );
+                    }
+                }
+            }
+            File target = new File( reportsDirectory, file.getName() );
+            target.delete();
+            FileUtils.rename( file, target );
+        }
+    }
+
+    private int getCount( String testSuite, String attribute )
+    {
+        Matcher matcher = Pattern.compile( "\\s" + attribute + "=\"(\\d+)\"" ).matcher( testSuite );
+        return matcher.find() ? Integer.parseInt( matcher.group( 1 ) ) : 0;
+    }
+
+    /**
+     * @param name the name of the group of test classes, the module or the test class, for the log file
+     * @param tests the test classes to run in the same JVM
+     * @param war the directory for code generated by GWT
+     * @param testWorkDir the GWT work directory, may be <code>null</code>
+     * @param reports the directory for test reports
+     * @param prefix prefix for the output of the JVM, may be <code>null</code>
+     * @throws MojoExecutionException some error occured
+     */
+    private void forkToRunTest( String name, List<String> tests, File war, File testWorkDir, File reports,
+                                String prefix )
+        throws MojoExecutionException
+    {
+        try
+        {
+            if ( !war.isAbsolute() )
+            {
+                war = new File( getProject().getBasedir(), war.getPath() );
+            }
+            war.mkdirs();
+            if ( testWorkDir != null )
+            {
+                testWorkDir.mkdirs();
             }
             try
             {
@@ -452,7 +687,7 @@ public class TestMojo
                     cmd.addToClasspath( getGwtUserJar() )
                        .addToClasspath( getGwtDevJar() );
                 }
-                cmd.addToClasspath( getClasspath( Artifact.SCOPE_TEST ) );
+                cmd.addToClasspath( getTestClasspath() );
                 if ( !gwtSdkFirstInClasspath )
                 {
                     cmd.addToClasspath( getGwtUserJar() )
@@ -461,15 +696,23 @@ public class TestMojo
 
                 addCompileSourceArtifacts( cmd );
 
-                cmd.arg( test );
-                cmd.systemProperty( "surefire.reports", reportsDirectory.getAbsolutePath() );
-                cmd.systemProperty( "gwt.args", getGwtArgs() );
+                for ( String test : tests )
+                {
+                    cmd.arg( test );
+                }
+                // the time out applies to each test class
+                cmd.setTimeOut( getTimeOut() * tests.size() );
+                cmd.systemProperty( "surefire.reports", reports.getAbsolutePath() );
+                cmd.systemProperty( "gwt.args", getGwtArgs( war.getAbsolutePath(), testWorkDir ) );
+                cmd.setLogPrefix( prefix ).setLogName( name );
 
                 cmd.execute();
             }
-            catch ( ForkedProcessExecutionException e )
+            catch ( JavaCommandException e )
             {
-                failures++;
+                // MavenTestRunner exits with a non-zero status on test failure
+                getLog().debug( e.getMessage() );
+                failures.incrementAndGet();
             }
         }
         catch ( Exception e )
@@ -478,15 +721,30 @@ public class TestMojo
         }
     }
 
+    private synchronized Collection<File> getTestClasspath()
+        throws MojoExecutionException
+    {
+        if ( testClasspath == null )
+        {
+            testClasspath = getClasspath( Artifact.SCOPE_TEST );
+        }
+        return testClasspath;
+    }
+
     /**
      * <p>getGwtArgs.</p>
      *
      * @return a {@link java.lang.String} object.
      */
     protected String getGwtArgs()
+    {
+        return getGwtArgs( out, workDir );
+    }
+
+    private String getGwtArgs( String war, File testWorkDir )
     {
         StringBuilder sb = new StringBuilder();
-        sb.append( "-war " ).append( quote( out ) );
+        sb.append( "-war " ).append( quote( war ) );
         sb.append( " -logLevel " ).append( quote( getLogLevel() ) );
         sb.append( ( webMode || productionMode ) ? " -nodevMode" : " -devMode" );
         sb.append( checkAssertions ? " -checkAssertions" : " -nocheckAssertions" );
@@ -518,9 +776,9 @@ public class TestMojo
         {
             sb.append( " -logdir " ).append( quote( logDir.getAbsolutePath() ) );
         }
-        if ( workDir != null )
+        if ( testWorkDir != null )
         {
-            sb.append( " -workDir " ).append( quote( workDir.getAbsolutePath() ) );
+            sb.append( " -workDir " ).append( quote( testWorkDir.getAbsolutePath() ) );
         }
 
         if ( namespace != null && !namespace.trim().isEmpty() )
@@ -565,7 +823,7 @@ public class TestMojo
         }
         // TODO Is addArgumentDeploy(cmd) also needed to get readable test stacktraces with an alternative deploy dir?
 
-      getLog().error(sb);
+        getLog().debug( "GWT test arguments: " + sb );
         return sb.toString();
     }
 
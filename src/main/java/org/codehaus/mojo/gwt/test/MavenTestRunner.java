@@ -60,22 +60,29 @@ public class MavenTestRunner
      * @param args an array of {@link java.lang.String} objects.
      */
     public static void main( String args[] )
+    {
+        System.exit( run( args ) );
+    }
+
+    /**
+     * Run the tests, for the GWT daemon JVM to run them without exiting the JVM.
+     *
+     * @param args the test classes to run
+     * @return the exit status
+     */
+    public static int run( String args[] )
     {
         try
         {
             MavenTestRunner runner = new MavenTestRunner();
-            TestResult r = runner.start( args );
-            if ( !r.wasSuccessful() )
-            {
-                System.exit( FAILURE_EXIT );
-            }
-            System.exit( SUCCESS_EXIT );
+            TestResult r = args.length > 1 ? runner.runAll( args ) : runner.start( args );
+            return r.wasSuccessful() ? SUCCESS_EXIT : FAILURE_EXIT;
         }
         catch ( Throwable t )
         {
             t.printStackTrace();
             System.err.println( t.getMessage() );
-            System.exit( EXCEPTION_EXIT );
+            return EXCEPTION_EXIT;
         }
     }
 
@@ -101,10 +108,52 @@ public class MavenTestRunner
         try
         {
             reportManager.runStarting( suite.countTestCases() );
-            ReportEntry report = new ReportEntry( this.getClass().getName(), suite.toString(), "starting" );
-            reportManager.testSetStarting( report );
             TestResult result = createTestResult();
-            suite.run( result );
+            runTestSet( suite, result );
+            return result;
+        }
+        catch ( ReporterException e )
+        {
+            System.err.println( "Failed to log in test report " + e );
+            return null;
+        }
+        finally
+        {
+            reportManager.runCompleted();
+        }
+    }
+
+    /**
+     * Run several test classes in this JVM, each one reported as a distinct test set. All tests are created before
+     * running the first one, so that GWT can batch the tests of the same module.
+     *
+     * @param testClasses the test class names
+     * @return the result of all tests
+     * @since 2.8.0
+     */
+    public TestResult runAll( String[] testClasses )
+    {
+        List<Test> tests = new ArrayList<Test>( testClasses.length );
+        int count = 0;
+        for ( String testClass : testClasses )
+        {
+            Test test = getTest( testClass );
+            if ( test == null )
+            {
+                throw new IllegalArgumentException( "Failed to load test " + testClass );
+            }
+            tests.add( test );
+            count += test.countTestCases();
+        }
+
+        try
+        {
+            reportManager.runStarting( count );
+            TestResult result = createTestResult();
+            for ( Test test : tests )
+            {
+                runTestSet( test, result );
+            }
             return result;
         }
         catch ( ReporterException e )
@@ -113,10 +162,24 @@ public class MavenTestRunner
             return null;
         }
         finally
+        {
+            reportManager.runCompleted();
+        }
+    }
+
+    private void runTestSet( Test suite, TestResult result )
+        throws ReporterException
+    {
+        try
+        {
+            ReportEntry report = new ReportEntry( this.getClass().getName(), suite.toString(), "starting" );
+            reportManager.testSetStarting( report );
+            suite.run( result );
+        }
+        finally
         {
             ReportEntry report = new ReportEntry( this.getClass().getName(), suite.toString(), "ended" );
             reportManager.testSetCompleted( report );
-            reportManager.runCompleted();
         }
     }
 
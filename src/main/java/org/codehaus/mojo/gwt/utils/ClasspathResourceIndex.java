@@ -0,0 +1,277 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+
+/**
+ * Build-wide index of the GWT module descriptors (<code>*.gwt.xml</code>) available in classpath jars, used to resolve
+ * inherited modules without opening a <code>ClassLoader</code> on the whole classpath for each lookup.
+ * <p>
+ * The module descriptors of a jar are listed once, from its zip central directory, and kept until the jar changes size
+ * or timestamp. Classpath directories are not indexed, as a single file lookup is as cheap as an index lookup.
+ *
+ * @since 2.8.0
+ */
+@Component(role = ClasspathResourceIndex.class)
+public class ClasspathResourceIndex
+    extends AbstractLogEnabled
+{
+    private static final String MODULE_SUFFIX = DefaultGwtModuleReader.GWT_MODULE_EXTENSION;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int END_MAX_COMMENT = 0xFFFF;
+
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+    private static final int CENTRAL_SIZE = 46;
+
+    private final ConcurrentMap<File, JarIndex> jars = new ConcurrentHashMap<File, JarIndex>();
+
+    /**
+     * Find a module descriptor in a classpath, with the same precedence as a <code>ClassLoader</code>.
+     *
+     * @param classpath the classpath entries, in order
+     * @param modulePath the module descriptor path, like <code>com/google/gwt/user/User.gwt.xml</code>
+     * @return the module descriptor URL, or <code>null</code> if not found
+     */
+    public URL findModule( Collection<File> classpath, String modulePath )
+    {
+        for ( File entry : classpath )
+        {
+            try
+            {
+                if ( entry.isDirectory() )
+                {
+                    File file = new File( entry, modulePath );
+                    if ( file.isFile() )
+                    {
+                        return file.toURI().toURL();
+                    }
+                }
+                else if ( entry.isFile() && getModules( entry ).contains( modulePath ) )
+                {
+                    return new URL( "jar:" + entry.toURI().toURL() + "!/" + modulePath );
+                }
+            }
+            catch ( MalformedURLException e )
+            {
+                // ignored, as a ClassLoader would do
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>getModules.</p>
+     *
+     * @param jar a classpath jar
+     * @return the paths of the module descriptors in the jar
+     */
+    public Set<String> getModules( File jar )
+    {
+        long lastModified = jar.lastModified();
+        long length = jar.length();
+        JarIndex index = jars.get( jar );
+        if ( index != null && index.lastModified == lastModified && index.length == length )
+        {
+            return index.modules;
+        }
+
+        Set<String> modules;
+        try
+        {
+            modules = readCentralDirectory( jar );
+            if ( modules == null )
+            {
+                // zip64, self-extracting or otherwise unusual archive
+                modules = readZipFile( jar );
+            }
+        }
+        catch ( IOException e )
+        {
+            if ( getLogger() != null )
+            {
+                getLogger().debug( "Failed to list entries of " + jar + ": " + e.getMessage() );
+            }
+            modules = new HashSet<String>();
+        }
+        index = new JarIndex( lastModified, length, modules );
+        jars.put( jar, index );
+        return index.modules;
+    }
+
+    /**
+     * List the module descriptors from the jar central directory, mapped in memory so that only the central directory
+     * is read.
+     *
+     * @return the module descriptor paths, or <code>null</code> if the central directory can't be read this way
+     */
+    private Set<String> readCentralDirectory( File jar )
+        throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile( jar, "r" );
+        try
+        {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if ( size < END_SIZE )
+            {
+                return null;
+            }
+            int tail = (int) Math.min( size, END_SIZE + END_MAX_COMMENT );
+            ByteBuffer end = channel.map( FileChannel.MapMode.READ_ONLY, size - tail, tail );
+            end.order( ByteOrder.LITTLE_ENDIAN );
+            int endPosition = -1;
+            for ( int i = tail - END_SIZE; i >= 0; i-- )
+            {
+                if ( end.getInt( i ) == END_SIGNATURE )
+                {
+                    endPosition = i;
+                    break;
+                }
+            }
+            if ( endPosition < 0 )
+            {
+                return null;
+            }
+            long centralSize = end.getInt( endPosition + 12 ) & 0xFFFFFFFFL;
+            long centralOffset = end.getInt( endPosition + 16 ) & 0xFFFFFFFFL;
+            if ( centralOffset + centralSize > size - tail + endPosition )
+            {
+                return null;
+            }
+
+            ByteBuffer central = channel.map( FileChannel.MapMode.READ_ONLY, centralOffset, centralSize );
+            central.order( ByteOrder.LITTLE_ENDIAN );
+            byte[] suffix = MODULE_SUFFIX.getBytes( "UTF-8" );
+            Set<String> modules = new HashSet<String>();
+            int position = 0;
+            while ( position + CENTRAL_SIZE <= centralSize )
+            {
+                if ( central.getInt( position ) != CENTRAL_SIGNATURE )
+                {
+                    return null;
+                }
+                int nameLength = central.getShort( position + 28 ) & 0xFFFF;
+                int extraLength = central.getShort( position + 30 ) & 0xFFFF;
+                int commentLength = central.getShort( position + 32 ) & 0xFFFF;
+                int name = position + CENTRAL_SIZE;
+                if ( name + nameLength > centralSize )
+                {
+                    return null;
+                }
+                if ( endsWith( central, name, nameLength, suffix ) )
+                {
+                    byte[] bytes = new byte[nameLength];
+                    for ( int i = 0; i < nameLength; i++ )
+                    {
+                        bytes[i] = central.get( name + i );
+                    }
+                    modules.add( new String( bytes, "UTF-8" ) );
+                }
+                position = name + nameLength + extraLength + commentLength;
+            }
+            return modules;
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    private static boolean endsWith( ByteBuffer buffer, int offset, int length, byte[] suffix )
+    {
+        if ( length < suffix.length )
+        {
+            return false;
+        }
+        int start = offset + length - suffix.length;
+        for ( int i = 0; i < suffix.length; i++ )
+        {
+            if ( buffer.get( start + i ) != suffix[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<String> readZipFile( File jar )
+        throws IOException
+    {
+        Set<String> modules = new HashSet<String>();
+        ZipFile zip = new ZipFile( jar );
+        try
+        {
+            for ( Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); )
+            {
+                String name = entries.nextElement().getName();
+                if ( name.endsWith( MODULE_SUFFIX ) )
+                {
+                    modules.add( name );
+                }
+            }
+        }
+        finally
+        {
+            zip.close();
+        }
+        return modules;
+    }
+
+    private static class JarIndex
+    {
+        private final long lastModified;
+
+        private final long length;
+
+        private final Set<String> modules;
+
+        JarIndex( long lastModified, long length, Set<String> modules )
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.modules = Collections.unmodifiableSet( modules );
+        }
+    }
+}
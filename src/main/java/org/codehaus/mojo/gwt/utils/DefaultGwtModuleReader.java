@@ -16,17 +16,14 @@ package org.codehaus.mojo.gwt.utils;
  */
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
@@ -39,9 +36,6 @@ import org.codehaus.mojo.gwt.ClasspathBuilderException;
 import org.codehaus.mojo.gwt.GwtModule;
 import org.codehaus.mojo.gwt.GwtModuleReader;
 import org.codehaus.plexus.util.DirectoryScanner;
-import org.codehaus.plexus.util.ReaderFactory;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 
 /**
  * <p>DefaultGwtModuleReader class.</p>
@@ -62,6 +56,20 @@ public class DefaultGwtModuleReader
 
     private Log log;
 
+    private GwtModuleCache moduleCache;
+
+    private ClasspathResourceIndex resourceIndex;
+
+    /**
+     * Compile classpath used to resolve modules, computed on first use
+     */
+    private Collection<File> moduleClasspath;
+
+    /**
+     * Modules already read, so that inherited modules are only resolved once
+     */
+    private final Map<String, GwtModule> gwtModules = new HashMap<String, GwtModule>();
+
     /**
      * <p>Constructor for DefaultGwtModuleReader.</p>
      *
@@ -70,10 +78,28 @@ public class DefaultGwtModuleReader
      * @param classpathBuilder a {@link org.codehaus.mojo.gwt.ClasspathBuilder} object.
      */
     public DefaultGwtModuleReader( MavenProject mavenProject, Log log, ClasspathBuilder classpathBuilder )
+    {
+        this( mavenProject, log, classpathBuilder, new GwtModuleCache(), new ClasspathResourceIndex() );
+    }
+
+    /**
+     * <p>Constructor for DefaultGwtModuleReader.</p>
+     *
+     * @param mavenProject a {@link org.apache.maven.project.MavenProject} object.
+     * @param log a {@link org.apache.maven.plugin.logging.Log} object.
+     * @param classpathBuilder a {@link org.codehaus.mojo.gwt.ClasspathBuilder} object.
+     * @param moduleCache the build-wide {@link org.codehaus.mojo.gwt.utils.GwtModuleCache}
+     * @param resourceIndex the build-wide {@link org.codehaus.mojo.gwt.utils.ClasspathResourceIndex}
+     * @since 2.8.0
+     */
+    public DefaultGwtModuleReader( MavenProject mavenProject, Log log, ClasspathBuilder classpathBuilder,
+                                   GwtModuleCache moduleCache, ClasspathResourceIndex resourceIndex )
     {
         this.mavenProject = mavenProject;
         this.log = log;
         this.classpathBuilder = classpathBuilder;
+        this.moduleCache = moduleCache;
+        this.resourceIndex = resourceIndex;
     }
 
     /**
@@ -138,6 +164,18 @@ public class DefaultGwtModuleReader
     /** {@inheritDoc} */
     public GwtModule readModule( String name )
         throws GwtModuleReaderException
+    {
+        GwtModule gwtModule = gwtModules.get( name );
+        if ( gwtModule == null )
+        {
+            gwtModule = findModule( name );
+            gwtModules.put( name, gwtModule );
+        }
+        return gwtModule;
+    }
+
+    private GwtModule findModule( String name )
+        throws GwtModuleReaderException
     {
         String modulePath = name.replace( '.', '/' ) + GWT_MODULE_EXTENSION;
         Collection<String> sourceRoots = mavenProject.getCompileSourceRoots();
@@ -148,7 +186,7 @@ public class DefaultGwtModuleReader
             if ( xml.exists() )
             {
                 log.debug( "GWT module " + name + " found in " + root );
-                return readModule( name, xml );
+                return moduleCache.readModule( name, xml, this );
             }
         }
         Collection<Resource> resources = (Collection<Resource>) mavenProject.getResources();
@@ -159,65 +197,28 @@ public class DefaultGwtModuleReader
             if ( xml.exists() )
             {
                 log.debug( "GWT module " + name + " found in " + root );
-                return readModule( name, xml );
+                return moduleCache.readModule( name, xml, this );
             }
         }
 
         try
         {
-            Collection<File> classpath = getClasspath( Artifact.SCOPE_COMPILE );
-            URL[] urls = new URL[classpath.size()];
-            int i = 0;
-            for ( File file : classpath )
+            if ( moduleClasspath == null )
             {
-                urls[i++] = file.toURI().toURL();
+                moduleClasspath = getClasspath( Artifact.SCOPE_COMPILE );
             }
-            InputStream stream = new URLClassLoader( urls ).getResourceAsStream( modulePath );
-            if ( stream != null )
-            {
-                return readModule( name, stream );
-            }
-        }
-        catch ( MalformedURLException e )
-        {
-            // ignored;
         }
         catch ( ClasspathBuilderException e )
         {
             throw new GwtModuleReaderException( e.getMessage(), e );
         }
-
-        throw new GwtModuleReaderException( "GWT Module " + name + " not found in project sources or resources." );
-    }
-
-    private GwtModule readModule( String name, File file )
-        throws GwtModuleReaderException
-
-    {
-        try
+        URL url = resourceIndex.findModule( moduleClasspath, modulePath );
+        if ( url != null )
         {
-            return readModule( name, new FileInputStream( file ) );
+            return moduleCache.readModule( name, url, this );
         }
-        catch ( FileNotFoundException e )
-        {
-            throw new GwtModuleReaderException( "Failed to read module file " + file );
-        }
-    }
 
-    private GwtModule readModule( String name, InputStream xml )
-        throws GwtModuleReaderException
-    {
-        try
-        {
-            Xpp3Dom dom = Xpp3DomBuilder.build( ReaderFactory.newXmlReader( xml ) );
-            return new GwtModule( name, dom, this );
-        }
-        catch ( Exception e )
-        {
-            String error = "Failed to read module XML file " + xml;
-            log.error( error );
-            throw new GwtModuleReaderException( error, e );
-        }
+        throw new GwtModuleReaderException( "GWT Module " + name + " not found in project sources or resources." );
     }
 
     /**
@@ -0,0 +1,173 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Watches directory trees for added, modified and deleted files, by comparing the size and timestamp of their files
+ * at a regular interval. Files matching the default excludes of {@link DirectoryScanner} (SCM metadata, editor
+ * backups...) are ignored.
+ * <p>
+ * The watcher runs in a daemon thread, the listener is notified from this thread with the files changed since the
+ * previous scan.
+ *
+ * @since 2.8.0
+ */
+public class DirectoryWatcher
+    implements Runnable
+{
+    /**
+     * Notified of the changes found by a scan.
+     */
+    public interface Listener
+    {
+        /**
+         * @param changed the files added, modified or deleted since the previous scan
+         */
+        void filesChanged( Set<File> changed );
+    }
+
+    private final List<File> roots;
+
+    private final long interval;
+
+    private final Listener listener;
+
+    private Map<File, String> snapshot;
+
+    private volatile Thread thread;
+
+    /**
+     * <p>Constructor for DirectoryWatcher.</p>
+     *
+     * @param roots the directories to watch, that may not exist yet
+     * @param interval the delay between two scans, in milliseconds
+     * @param listener the listener to notify of changes
+     */
+    public DirectoryWatcher( Collection<File> roots, long interval, Listener listener )
+    {
+        this.roots = new ArrayList<File>( roots );
+        this.interval = interval;
+        this.listener = listener;
+    }
+
+    /**
+     * Take the initial snapshot and start watching.
+     */
+    public synchronized void start()
+    {
+        snapshot = scan();
+        thread = new Thread( this, "gwt-directory-watcher" );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * Stop watching.
+     */
+    public synchronized void stop()
+    {
+        if ( thread != null )
+        {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void run()
+    {
+        while ( thread == Thread.currentThread() )
+        {
+            try
+            {
+                Thread.sleep( interval );
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            Set<File> changed = poll();
+            if ( !changed.isEmpty() )
+            {
+                listener.filesChanged( changed );
+            }
+        }
+    }
+
+    /**
+     * Scan the watched directories and compare them with the previous scan.
+     *
+     * @return the files changed since the previous scan
+     */
+    private Set<File> poll()
+    {
+        Map<File, String> current = scan();
+        Set<File> changed = new LinkedHashSet<File>();
+        for ( Map.Entry<File, String> file : current.entrySet() )
+        {
+            if ( !file.getValue().equals( snapshot.get( file.getKey() ) ) )
+            {
+                changed.add( file.getKey() );
+            }
+        }
+        for ( File file : snapshot.keySet() )
+        {
+            if ( !current.containsKey( file ) )
+            {
+                changed.add( file );
+            }
+        }
+        snapshot = current;
+        return changed;
+    }
+
+    private Map<File, String> scan()
+    {
+        Map<File, String> files = new HashMap<File, String>();
+        for ( File root : roots )
+        {
+            if ( !root.isDirectory() )
+            {
+                continue;
+            }
+            DirectoryScanner scanner = new DirectoryScanner();
+            scanner.setBasedir( root );
+            scanner.addDefaultExcludes();
+            scanner.scan();
+            for ( String path : scanner.getIncludedFiles() )
+            {
+                File file = new File( root, path );
+                files.put( file, file.length() + ";" + file.lastModified() );
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,271 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Keeps a target directory in sync with a set of source files, copying only the files that changed since the last
+ * synchronization, and deleting the files it copied before whose source is gone.
+ * <p>
+ * The state of the last synchronization (source size and timestamp, and content hash if requested) is persisted in a
+ * state file. Target files that were not copied by this synchronizer are never deleted.
+ *
+ * @since 2.8.0
+ */
+public class FileSynchronizer
+{
+    private static final String SEPARATOR = ";";
+
+    private final File stateFile;
+
+    private boolean compareContent;
+
+    private int threads = 1;
+
+    private int copied;
+
+    private int deleted;
+
+    /**
+     * <p>Constructor for FileSynchronizer.</p>
+     *
+     * @param stateFile the file to persist the synchronization state to
+     */
+    public FileSynchronizer( File stateFile )
+    {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * When set, a source file whose timestamp changed is only copied if its content changed too, so that a
+     * <code>git checkout</code> doesn't make all target files look modified.
+     *
+     * @param compareContent whether to compare content hashes
+     * @return this
+     */
+    public FileSynchronizer setCompareContent( boolean compareContent )
+    {
+        this.compareContent = compareContent;
+        return this;
+    }
+
+    /**
+     * <p>Setter for the field <code>threads</code>.</p>
+     *
+     * @param threads the number of files to copy concurrently
+     * @return this
+     */
+    public FileSynchronizer setThreads( int threads )
+    {
+        this.threads = Math.max( 1, threads );
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>copied</code>.</p>
+     *
+     * @return the number of files copied by the last synchronization
+     */
+    public int getCopied()
+    {
+        return copied;
+    }
+
+    /**
+     * <p>Getter for the field <code>deleted</code>.</p>
+     *
+     * @return the number of stale files deleted by the last synchronization
+     */
+    public int getDeleted()
+    {
+        return deleted;
+    }
+
+    /**
+     * Synchronize the target directory.
+     *
+     * @param sources the source files, by path relative to the target directory
+     * @param targetDirectory the target directory
+     * @throws java.io.IOException if a file can't be copied
+     */
+    public void synchronize( Map<String, File> sources, File targetDirectory )
+        throws IOException
+    {
+        final Properties previous = loadState();
+        final Properties state = new Properties();
+        copied = 0;
+        deleted = 0;
+
+        List<Callable<Void>> copies = new ArrayList<Callable<Void>>();
+        for ( Map.Entry<String, File> entry : sources.entrySet() )
+        {
+            final String path = entry.getKey();
+            final File source = entry.getValue();
+            final File target = new File( targetDirectory, path );
+            String stat = source.length() + SEPARATOR + source.lastModified();
+            String known = previous.getProperty( path );
+            if ( known != null && ( known.equals( stat ) || known.startsWith( stat + SEPARATOR ) )
+                && target.isFile() && target.length() == source.length() )
+            {
+                state.setProperty( path, known );
+                continue;
+            }
+            if ( compareContent && known != null && target.isFile() && target.length() == source.length() )
+            {
+                String hash = Fingerprint.hash( source );
+                if ( known.endsWith( SEPARATOR + hash ) )
+                {
+                    state.setProperty( path, stat + SEPARATOR + hash );
+                    continue;
+                }
+            }
+            state.setProperty( path, stat + ( compareContent ? SEPARATOR + Fingerprint.hash( source ) : "" ) );
+            copies.add( new Callable<Void>()
+            {
+                public Void call()
+                    throws IOException
+                {
+                    FileUtils.copyFile( source, target );
+                    return null;
+                }
+            } );
+        }
+        copy( copies );
+        copied = copies.size();
+
+        for ( String path : previous.stringPropertyNames() )
+        {
+            if ( !sources.containsKey( path ) && new File( targetDirectory, path ).delete() )
+            {
+                deleted++;
+            }
+        }
+
+        storeState( state );
+    }
+
+    private void copy( List<Callable<Void>> copies )
+        throws IOException
+    {
+        if ( threads == 1 || copies.size() < 2 )
+        {
+            for ( Callable<Void> copy : copies )
+            {
+                try
+                {
+                    copy.call();
+                }
+                catch ( IOException e )
+                {
+                    throw e;
+                }
+                catch ( Exception e )
+                {
+                    throw new IllegalStateException( e );
+                }
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, copies.size() ) );
+        try
+        {
+            for ( Future<Void> result : executor.invokeAll( copies ) )
+            {
+                result.get();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while copying files" );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private Properties loadState()
+    {
+        Properties state = new Properties();
+        if ( stateFile.isFile() )
+        {
+            InputStream in = null;
+            try
+            {
+                in = new FileInputStream( stateFile );
+                state.load( in );
+            }
+            catch ( IOException e )
+            {
+                // copy everything again
+                state.clear();
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+        }
+        return state;
+    }
+
+    private void storeState( Properties state )
+        throws IOException
+    {
+        stateFile.getAbsoluteFile().getParentFile().mkdirs();
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( stateFile );
+            state.store( out, null );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+}
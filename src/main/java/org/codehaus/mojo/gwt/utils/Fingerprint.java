@@ -0,0 +1,437 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.IOUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Content hashes of a set of build inputs (files, directories and plain values), that can be persisted so that a later
+ * build can tell if, and which, inputs have changed.
+ * <p>
+ * File hashes are reused from the previous fingerprint when the file size and timestamp are unchanged, so that only
+ * modified files are read again. A file that was only touched (by a <code>git checkout</code> or a cache restore) is
+ * hashed again but still matches the previous fingerprint.
+ * <p>
+ * Files under the project base directory or the local repository are keyed relative to them, so that a fingerprint
+ * still matches once a CI cache is restored into another workspace.
+ *
+ * @since 2.8.0
+ */
+public class Fingerprint
+{
+    private static final String SEPARATOR = ";";
+
+    private static final int MAX_REPORTED_CHANGES = 3;
+
+    private static final String BASEDIR = "${basedir}";
+
+    private static final String LOCAL_REPOSITORY = "${localRepository}";
+
+    private final SortedMap<String, String> entries = new TreeMap<String, String>();
+
+    private final Fingerprint previous;
+
+    private String basedir;
+
+    private String localRepository;
+
+    /**
+     * <p>Constructor for Fingerprint.</p>
+     *
+     * @param previous the previous fingerprint of the same inputs, to reuse hashes from, may be <code>null</code>
+     */
+    public Fingerprint( Fingerprint previous )
+    {
+        this.previous = previous;
+    }
+
+    /**
+     * Key files relative to the project base directory and to the local repository, rather than by absolute path.
+     *
+     * @param basedir the project base directory, may be <code>null</code>
+     * @param localRepository the local repository directory, may be <code>null</code>
+     * @return this fingerprint
+     */
+    public Fingerprint setRoots( File basedir, File localRepository )
+    {
+        this.basedir = basedir == null ? null : basedir.getAbsolutePath();
+        this.localRepository = localRepository == null ? null : localRepository.getAbsolutePath();
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>previous</code>.</p>
+     *
+     * @return the previous fingerprint, may be <code>null</code>
+     */
+    public Fingerprint getPrevious()
+    {
+        return previous;
+    }
+
+    /**
+     * The names of the inputs, to fingerprint the same inputs again.
+     *
+     * @return the input names, as returned by {@link #getKey(File)} for files
+     */
+    public Set<String> getKeys()
+    {
+        return Collections.unmodifiableSet( entries.keySet() );
+    }
+
+    /**
+     * Add a plain value, like a command line argument.
+     *
+     * @param key the input name
+     * @param value the input value
+     */
+    public void addValue( String key, String value )
+    {
+        try
+        {
+            String relocatable = relativize( String.valueOf( value ) );
+            entries.put( key, toHex( getDigest().digest( relocatable.getBytes( "UTF-8" ) ) ) );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Add a file, or all files of a directory.
+     *
+     * @param file the file or directory, used as input name
+     * @throws java.io.IOException if the file can't be read
+     */
+    public void addFile( File file )
+        throws IOException
+    {
+        if ( file.isDirectory() )
+        {
+            addDirectory( file, null );
+            return;
+        }
+        String key = getKey( file );
+        if ( !file.exists() )
+        {
+            entries.put( key, "missing" );
+            return;
+        }
+        String stat = file.length() + SEPARATOR + file.lastModified();
+        if ( previous != null )
+        {
+            String known = previous.entries.get( key );
+            if ( known != null && known.endsWith( SEPARATOR + stat ) )
+            {
+                entries.put( key, known );
+                return;
+            }
+        }
+        entries.put( key, hash( file ) + SEPARATOR + stat );
+    }
+
+    /**
+     * The input name of a file.
+     *
+     * @param file the file
+     * @return the path relative to the base directory or the local repository, the absolute path otherwise
+     */
+    public String getKey( File file )
+    {
+        String path = file.getAbsolutePath();
+        if ( basedir != null && path.startsWith( basedir + File.separator ) )
+        {
+            return BASEDIR + path.substring( basedir.length() ).replace( File.separatorChar, '/' );
+        }
+        if ( localRepository != null && path.startsWith( localRepository + File.separator ) )
+        {
+            return LOCAL_REPOSITORY + path.substring( localRepository.length() ).replace( File.separatorChar, '/' );
+        }
+        return path;
+    }
+
+    /**
+     * The file of an input name returned by {@link #getKey(File)}.
+     *
+     * @param key the input name
+     * @return the file, resolved against the base directory or the local repository of this fingerprint
+     */
+    public File getFile( String key )
+    {
+        if ( key.startsWith( BASEDIR + '/' ) && basedir != null )
+        {
+            return new File( basedir, key.substring( BASEDIR.length() + 1 ) );
+        }
+        if ( key.startsWith( LOCAL_REPOSITORY + '/' ) && localRepository != null )
+        {
+            return new File( localRepository, key.substring( LOCAL_REPOSITORY.length() + 1 ) );
+        }
+        return new File( key );
+    }
+
+    /**
+     * Replace the base directory and local repository paths in a value, like the paths of a command line.
+     */
+    private String relativize( String value )
+    {
+        String relative = value;
+        if ( basedir != null )
+        {
+            relative = relative.replace( basedir, BASEDIR );
+        }
+        if ( localRepository != null )
+        {
+            relative = relative.replace( localRepository, LOCAL_REPOSITORY );
+        }
+        return relative;
+    }
+
+    /**
+     * Add files from a directory.
+     *
+     * @param directory the directory, may not exist
+     * @param includes the files to include, relative to the directory, or <code>null</code> for all
+     * @throws java.io.IOException if a file can't be read
+     */
+    public void addDirectory( File directory, String[] includes )
+        throws IOException
+    {
+        if ( !directory.isDirectory() )
+        {
+            return;
+        }
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( directory );
+        if ( includes != null )
+        {
+            scanner.setIncludes( includes );
+        }
+        scanner.scan();
+        for ( String file : scanner.getIncludedFiles() )
+        {
+            addFile( new File( directory, file ) );
+        }
+    }
+
+    /**
+     * Add all inputs from another fingerprint.
+     *
+     * @param other a {@link org.codehaus.mojo.gwt.utils.Fingerprint} object.
+     */
+    public void addAll( Fingerprint other )
+    {
+        entries.putAll( other.entries );
+    }
+
+    /**
+     * Compare with another fingerprint, based on content only.
+     *
+     * @param other the fingerprint to compare with, typically the previous one
+     * @return a description of the changed inputs, or <code>null</code> if both match
+     */
+    public String getDifference( Fingerprint other )
+    {
+        SortedSet<String> keys = new TreeSet<String>( entries.keySet() );
+        keys.addAll( other.entries.keySet() );
+        List<String> changes = new ArrayList<String>();
+        for ( String key : keys )
+        {
+            String hash = getHash( entries.get( key ) );
+            String otherHash = getHash( other.entries.get( key ) );
+            if ( hash == null )
+            {
+                changes.add( key + " was removed" );
+            }
+            else if ( otherHash == null )
+            {
+                changes.add( key + " was added" );
+            }
+            else if ( !hash.equals( otherHash ) )
+            {
+                changes.add( key + " has changed" );
+            }
+        }
+        if ( changes.isEmpty() )
+        {
+            return null;
+        }
+        StringBuilder difference = new StringBuilder();
+        for ( int i = 0; i < changes.size() && i < MAX_REPORTED_CHANGES; i++ )
+        {
+            difference.append( i > 0 ? ", " : "" ).append( changes.get( i ) );
+        }
+        if ( changes.size() > MAX_REPORTED_CHANGES )
+        {
+            difference.append( " and " ).append( changes.size() - MAX_REPORTED_CHANGES ).append( " more" );
+        }
+        return difference.toString();
+    }
+
+    /**
+     * Check if this fingerprint would be stored as the previous one was, file stats included, so that storing it again
+     * can be skipped.
+     *
+     * @return <code>true</code> if there is a previous fingerprint with the same entries
+     */
+    public boolean isStored()
+    {
+        return previous != null && entries.equals( previous.entries );
+    }
+
+    /**
+     * Load a fingerprint stored by {@link #store(File)}.
+     *
+     * @param file the fingerprint file
+     * @return the fingerprint, or <code>null</code> if the file doesn't exist or can't be read
+     */
+    public static Fingerprint load( File file )
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+        Properties properties = new Properties();
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            properties.load( in );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        Fingerprint fingerprint = new Fingerprint( null );
+        for ( Map.Entry<Object, Object> entry : properties.entrySet() )
+        {
+            fingerprint.entries.put( (String) entry.getKey(), (String) entry.getValue() );
+        }
+        return fingerprint;
+    }
+
+    /**
+     * <p>store.</p>
+     *
+     * @param file the fingerprint file
+     * @throws java.io.IOException if the file can't be written
+     */
+    public void store( File file )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        Properties properties = new Properties();
+        properties.putAll( entries );
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( file );
+            properties.store( out, null );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Compute the SHA-1 of a file content.
+     *
+     * @param file a {@link java.io.File} object.
+     * @return the hexadecimal SHA-1
+     * @throws java.io.IOException if the file can't be read
+     */
+    public static String hash( File file )
+        throws IOException
+    {
+        MessageDigest digest = getDigest();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[65536];
+            int read;
+            while ( ( read = in.read( buffer ) ) >= 0 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return toHex( digest.digest() );
+    }
+
+    private static String getHash( String entry )
+    {
+        if ( entry == null )
+        {
+            return null;
+        }
+        int i = entry.indexOf( SEPARATOR );
+        return i < 0 ? entry : entry.substring( 0, i );
+    }
+
+    private static MessageDigest getDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        StringBuilder hex = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes )
+        {
+            hex.append( Integer.toHexString( ( b & 0xFF ) | 0x100 ).substring( 1 ) );
+        }
+        return hex.toString();
+    }
+}
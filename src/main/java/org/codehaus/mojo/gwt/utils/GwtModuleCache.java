@@ -0,0 +1,180 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.mojo.gwt.GwtModule;
+import org.codehaus.mojo.gwt.GwtModuleReader;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+
+/**
+ * Build-wide cache of parsed GWT module descriptors, shared by all mojos. Descriptors are keyed by module name and
+ * location, and parsed again only when the descriptor file (or the jar that contains it) has been modified.
+ *
+ * @since 2.8.0
+ */
+@Component(role = GwtModuleCache.class)
+public class GwtModuleCache
+    extends AbstractLogEnabled
+{
+    private final ConcurrentMap<String, CachedModule> modules = new ConcurrentHashMap<String, CachedModule>();
+
+    /**
+     * Read a module from a descriptor file.
+     *
+     * @param name the module name
+     * @param file the module descriptor
+     * @param reader the reader used to resolve inherited modules
+     * @return a {@link org.codehaus.mojo.gwt.GwtModule} object.
+     * @throws org.codehaus.mojo.gwt.utils.GwtModuleReaderException if any.
+     */
+    public GwtModule readModule( String name, File file, GwtModuleReader reader )
+        throws GwtModuleReaderException
+    {
+        try
+        {
+            GwtModule module = new GwtModule( name, getModuleXml( name, file.toURI().toURL(), file ), reader );
+            module.setSourceFile( file );
+            return module;
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new GwtModuleReaderException( "Failed to read module file " + file, e );
+        }
+    }
+
+    /**
+     * Read a module from a descriptor URL, typically a classpath resource.
+     *
+     * @param name the module name
+     * @param url the module descriptor
+     * @param reader the reader used to resolve inherited modules
+     * @return a {@link org.codehaus.mojo.gwt.GwtModule} object.
+     * @throws org.codehaus.mojo.gwt.utils.GwtModuleReaderException if any.
+     */
+    public GwtModule readModule( String name, URL url, GwtModuleReader reader )
+        throws GwtModuleReaderException
+    {
+        return new GwtModule( name, getModuleXml( name, url, getContainer( url ) ), reader );
+    }
+
+    private Xpp3Dom getModuleXml( String name, URL url, File container )
+        throws GwtModuleReaderException
+    {
+        String key = name + '@' + url;
+        CachedModule cached = modules.get( key );
+        if ( cached != null && container != null && cached.isUpToDate( container ) )
+        {
+            return cached.xml;
+        }
+
+        // get the timestamp before parsing, so that a concurrent change is detected next time
+        long lastModified = container != null ? container.lastModified() : 0;
+        long length = container != null ? container.length() : 0;
+        Xpp3Dom xml = parse( url );
+        if ( container != null )
+        {
+            modules.put( key, new CachedModule( lastModified, length, xml ) );
+        }
+        return xml;
+    }
+
+    private Xpp3Dom parse( URL url )
+        throws GwtModuleReaderException
+    {
+        InputStream in = null;
+        try
+        {
+            URLConnection connection = url.openConnection();
+            // don't keep jar files open in the JVM cache
+            connection.setUseCaches( false );
+            in = connection.getInputStream();
+            return Xpp3DomBuilder.build( ReaderFactory.newXmlReader( in ) );
+        }
+        catch ( Exception e )
+        {
+            throw new GwtModuleReaderException( "Failed to read module XML file " + url, e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * @return the file or jar holding the descriptor, used to detect changes, or <code>null</code> if unknown
+     */
+    private File getContainer( URL url )
+    {
+        String path = url.toExternalForm();
+        if ( path.startsWith( "jar:" ) )
+        {
+            int separator = path.indexOf( "!/" );
+            if ( separator < 0 )
+            {
+                return null;
+            }
+            try
+            {
+                return FileUtils.toFile( new URL( path.substring( 4, separator ) ) );
+            }
+            catch ( IOException e )
+            {
+                return null;
+            }
+        }
+        return FileUtils.toFile( url );
+    }
+
+    private static class CachedModule
+    {
+        private final long lastModified;
+
+        private final long length;
+
+        private final Xpp3Dom xml;
+
+        CachedModule( long lastModified, long length, Xpp3Dom xml )
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.xml = xml;
+        }
+
+        boolean isUpToDate( File container )
+        {
+            return container.lastModified() == lastModified && container.length() == length;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Adds files to an existing jar without recompressing its entries: the entries of the original jar are copied as raw
+ * bytes, followed by the new files, then a new central directory is written.
+ * <p>
+ * Entries of the original jar with the same name as an added file are replaced. Zip64 archives are not supported, an
+ * {@link IOException} is thrown for the caller to fall back to rebuilding the jar.
+ *
+ * @since 2.8.0
+ */
+public class JarAppender
+{
+    private static final int LOCAL_HEADER = 0x04034b50;
+
+    private static final int CENTRAL_HEADER = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+
+    private static final int END_LENGTH = 22;
+
+    /** general purpose flag for UTF-8 entry names */
+    private static final int UTF8_FLAG = 0x0800;
+
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private final File jarFile;
+
+    private int replaced;
+
+    /**
+     * <p>Constructor for JarAppender.</p>
+     *
+     * @param jarFile the jar to add files to
+     */
+    public JarAppender( File jarFile )
+    {
+        this.jarFile = jarFile;
+    }
+
+    /**
+     * <p>Getter for the field <code>replaced</code>.</p>
+     *
+     * @return the number of entries of the original jar replaced by the last {@link #append(Map)}
+     */
+    public int getReplaced()
+    {
+        return replaced;
+    }
+
+    /**
+     * Add files to the jar. The jar is rewritten to a temporary file that replaces it once complete.
+     *
+     * @param files the files to add, by path relative to the jar root
+     * @throws java.io.IOException if the jar can't be read or written, or is a Zip64 archive
+     */
+    public void append( Map<String, File> files )
+        throws IOException
+    {
+        Map<String, File> entries = new LinkedHashMap<String, File>();
+        for ( Map.Entry<String, File> file : files.entrySet() )
+        {
+            entries.put( file.getKey().replace( File.separatorChar, '/' ), file.getValue() );
+        }
+        File tmp = new File( jarFile.getPath() + ".tmp" );
+        RandomAccessFile in = new RandomAccessFile( jarFile, "r" );
+        FileOutputStream out = null;
+        try
+        {
+            List<CentralEntry> original = readCentralDirectory( in );
+            out = new FileOutputStream( tmp );
+            write( in, original, entries, out );
+            out.close();
+            out = null;
+        }
+        catch ( IOException e )
+        {
+            IOUtil.close( out );
+            tmp.delete();
+            throw e;
+        }
+        finally
+        {
+            in.close();
+        }
+        if ( !jarFile.delete() || !tmp.renameTo( jarFile ) )
+        {
+            // renaming over an existing file fails on some platforms
+            FileUtils.copyFile( tmp, jarFile );
+            tmp.delete();
+        }
+    }
+
+    private void write( RandomAccessFile in, List<CentralEntry> entries, Map<String, File> files,
+                        FileOutputStream out )
+        throws IOException
+    {
+        replaced = 0;
+        FileChannel channel = in.getChannel();
+        FileChannel target = out.getChannel();
+        ByteArrayOutputStream central = new ByteArrayOutputStream();
+        Set<String> names = new HashSet<String>();
+        long offset = 0;
+        int count = 0;
+
+        for ( CentralEntry entry : entries )
+        {
+            if ( files.containsKey( entry.name ) )
+            {
+                replaced++;
+                continue;
+            }
+            long transferred = 0;
+            while ( transferred < entry.length )
+            {
+                transferred +=
+                    channel.transferTo( entry.localOffset + transferred, entry.length - transferred, target );
+            }
+            setInt( entry.header, 42, offset );
+            central.write( entry.header );
+            offset += entry.length;
+            names.add( entry.name );
+            count++;
+        }
+
+        for ( Map.Entry<String, File> file : files.entrySet() )
+        {
+            String name = file.getKey();
+            // parent directories, as other archivers add them
+            for ( int i = name.indexOf( '/' ); i > 0; i = name.indexOf( '/', i + 1 ) )
+            {
+                String directory = name.substring( 0, i + 1 );
+                if ( names.add( directory ) )
+                {
+                    offset += writeEntry( directory, null, file.getValue().lastModified(), offset, out, central );
+                    count++;
+                }
+            }
+            if ( names.add( name ) )
+            {
+                offset += writeEntry( name, file.getValue(), file.getValue().lastModified(), offset, out, central );
+                count++;
+            }
+        }
+
+        if ( count > MAX_ENTRIES || offset + central.size() > MAX_OFFSET )
+        {
+            throw new IOException( "Zip64 archives are not supported" );
+        }
+        central.writeTo( out );
+        byte[] end = new byte[END_LENGTH];
+        setInt( end, 0, END_OF_CENTRAL_DIRECTORY );
+        setShort( end, 8, count );
+        setShort( end, 10, count );
+        setInt( end, 12, central.size() );
+        setInt( end, 16, offset );
+        out.write( end );
+    }
+
+    private long writeEntry( String name, File file, long lastModified, long offset, OutputStream out,
+                             ByteArrayOutputStream central )
+        throws IOException
+    {
+        byte[] content = new byte[0];
+        if ( file != null )
+        {
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                content = IOUtil.toByteArray( in );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update( content );
+        byte[] data = content;
+        int method = 0;
+        if ( content.length > 0 )
+        {
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream( content.length / 2 + 16 );
+            Deflater compressor = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            DeflaterOutputStream deflater = new DeflaterOutputStream( deflated, compressor );
+            deflater.write( content );
+            deflater.close();
+            compressor.end();
+            data = deflated.toByteArray();
+            method = 8;
+        }
+        byte[] nameBytes = name.getBytes( "UTF-8" );
+        long dosTime = toDosTime( lastModified );
+
+        byte[] local = new byte[30];
+        setInt( local, 0, LOCAL_HEADER );
+        setShort( local, 4, 20 );
+        setShort( local, 6, UTF8_FLAG );
+        setShort( local, 8, method );
+        setInt( local, 10, dosTime );
+        setInt( local, 14, crc.getValue() );
+        setInt( local, 18, data.length );
+        setInt( local, 22, content.length );
+        setShort( local, 26, nameBytes.length );
+        out.write( local );
+        out.write( nameBytes );
+        out.write( data );
+
+        byte[] header = new byte[CENTRAL_HEADER_LENGTH];
+        setInt( header, 0, CENTRAL_HEADER );
+        setShort( header, 4, 20 );
+        setShort( header, 6, 20 );
+        setShort( header, 8, UTF8_FLAG );
+        setShort( header, 10, method );
+        setInt( header, 12, dosTime );
+        setInt( header, 16, crc.getValue() );
+        setInt( header, 20, data.length );
+        setInt( header, 24, content.length );
+        setShort( header, 28, nameBytes.length );
+        setInt( header, 38, file == null ? 0x10 : 0 );
+        setInt( header, 42, offset );
+        central.write( header );
+        central.write( nameBytes );
+
+        return local.length + nameBytes.length + data.length;
+    }
+
+    private List<CentralEntry> readCentralDirectory( RandomAccessFile in )
+        throws IOException
+    {
+        long length = in.length();
+        int tail = (int) Math.min( length, END_LENGTH + MAX_COMMENT_LENGTH );
+        byte[] buffer = new byte[tail];
+        in.seek( length - tail );
+        in.readFully( buffer );
+        int end = -1;
+        for ( int i = tail - END_LENGTH; i >= 0; i-- )
+        {
+            if ( getInt( buffer, i ) == END_OF_CENTRAL_DIRECTORY )
+            {
+                end = i;
+                break;
+            }
+        }
+        if ( end < 0 )
+        {
+            throw new IOException( jarFile + " is not a zip archive" );
+        }
+        int total = getShort( buffer, end + 10 );
+        long size = getInt( buffer, end + 12 );
+        long start = getInt( buffer, end + 16 );
+        if ( total == MAX_ENTRIES || size == MAX_OFFSET || start == MAX_OFFSET )
+        {
+            throw new IOException( "Zip64 archives are not supported" );
+        }
+
+        byte[] directory = new byte[(int) size];
+        in.seek( start );
+        in.readFully( directory );
+        List<CentralEntry> entries = new ArrayList<CentralEntry>( total );
+        int pos = 0;
+        for ( int i = 0; i < total; i++ )
+        {
+            if ( getInt( directory, pos ) != CENTRAL_HEADER )
+            {
+                throw new IOException( "Invalid central directory in " + jarFile );
+            }
+            int nameLength = getShort( directory, pos + 28 );
+            int headerLength =
+                CENTRAL_HEADER_LENGTH + nameLength + getShort( directory, pos + 30 ) + getShort( directory, pos + 32 );
+            CentralEntry entry = new CentralEntry();
+            entry.header = new byte[headerLength];
+            System.arraycopy( directory, pos, entry.header, 0, headerLength );
+            entry.name = new String( directory, pos + CENTRAL_HEADER_LENGTH, nameLength, "UTF-8" );
+            entry.localOffset = getInt( directory, pos + 42 );
+            entries.add( entry );
+            pos += headerLength;
+        }
+
+        // an entry spans from its local header to the next one, including any data descriptor
+        List<CentralEntry> sorted = new ArrayList<CentralEntry>( entries );
+        Collections.sort( sorted );
+        for ( int i = 0; i < sorted.size(); i++ )
+        {
+            long next = i + 1 < sorted.size() ? sorted.get( i + 1 ).localOffset : start;
+            sorted.get( i ).length = next - sorted.get( i ).localOffset;
+        }
+        return sorted;
+    }
+
+    private static long toDosTime( long time )
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis( time );
+        int year = calendar.get( Calendar.YEAR );
+        if ( year < 1980 )
+        {
+            return ( 1 << 21 ) | ( 1 << 16 );
+        }
+        return ( ( year - 1980 ) << 25 ) | ( ( calendar.get( Calendar.MONTH ) + 1 ) << 21 )
+            | ( calendar.get( Calendar.DAY_OF_MONTH ) << 16 ) | ( calendar.get( Calendar.HOUR_OF_DAY ) << 11 )
+            | ( calendar.get( Calendar.MINUTE ) << 5 ) | ( calendar.get( Calendar.SECOND ) >> 1 );
+    }
+
+    private static int getShort( byte[] buffer, int pos )
+    {
+        return ( buffer[pos] & 0xFF ) | ( ( buffer[pos + 1] & 0xFF ) << 8 );
+    }
+
+    private static long getInt( byte[] buffer, int pos )
+    {
+        return ( getShort( buffer, pos ) | ( (long) getShort( buffer, pos + 2 ) << 16 ) ) & MAX_OFFSET;
+    }
+
+    private static void setShort( byte[] buffer, int pos, int value )
+    {
+        buffer[pos] = (byte) value;
+        buffer[pos + 1] = (byte) ( value >> 8 );
+    }
+
+    private static void setInt( byte[] buffer, int pos, long value )
+    {
+        setShort( buffer, pos, (int) value );
+        setShort( buffer, pos + 2, (int) ( value >> 16 ) );
+    }
+
+    private static class CentralEntry
+        implements Comparable<CentralEntry>
+    {
+        String name;
+
+        byte[] header;
+
+        long localOffset;
+
+        long length;
+
+        public int compareTo( CentralEntry other )
+        {
+            return localOffset < other.localOffset ? -1 : ( localOffset == other.localOffset ? 0 : 1 );
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Build-wide cache of the resolved GWT SDK classpaths (gwt-user, gwt-dev and their dependencies), keyed by the plugin
+ * artifact coordinates, so that the SDK is resolved once per build rather than once per tool invocation.
+ * <p>
+ * Classpaths can also be recorded in a lock file, so that the SDK is resolved once per version. Entries of the lock
+ * file are ignored when one of the recorded files no longer exists.
+ *
+ * @since 2.8.0
+ */
+@Component(role = SdkClasspathCache.class)
+public class SdkClasspathCache
+    extends AbstractLogEnabled
+{
+    private final ConcurrentMap<String, List<File>> classpaths = new ConcurrentHashMap<String, List<File>>();
+
+    /**
+     * <p>get.</p>
+     *
+     * @param key the artifact coordinates
+     * @param lockFile the lock file to read from if not yet resolved in this build, may be <code>null</code>
+     * @return the resolved classpath, or <code>null</code> if unknown
+     */
+    public List<File> get( String key, File lockFile )
+    {
+        List<File> classpath = classpaths.get( key );
+        if ( classpath == null && lockFile != null )
+        {
+            String value = loadLockFile( lockFile ).getProperty( key );
+            if ( value != null )
+            {
+                List<File> files = new ArrayList<File>();
+                for ( String path : StringUtils.split( value, File.pathSeparator ) )
+                {
+                    File file = new File( path );
+                    if ( !file.exists() )
+                    {
+                        getLogger().debug( "Ignoring locked classpath of " + key + ", " + file + " is missing" );
+                        return null;
+                    }
+                    files.add( file );
+                }
+                classpath = Collections.unmodifiableList( files );
+                classpaths.put( key, classpath );
+            }
+        }
+        return classpath;
+    }
+
+    /**
+     * <p>put.</p>
+     *
+     * @param key the artifact coordinates
+     * @param files the resolved classpath
+     * @param lockFile the lock file to record the classpath to, may be <code>null</code>
+     */
+    public void put( String key, List<File> files, File lockFile )
+    {
+        classpaths.put( key, Collections.unmodifiableList( new ArrayList<File>( files ) ) );
+        if ( lockFile == null )
+        {
+            return;
+        }
+        synchronized ( this )
+        {
+            Properties properties = loadLockFile( lockFile );
+            StringBuilder value = new StringBuilder();
+            for ( File file : files )
+            {
+                value.append( value.length() > 0 ? File.pathSeparator : "" ).append( file.getAbsolutePath() );
+            }
+            properties.setProperty( key, value.toString() );
+            OutputStream out = null;
+            try
+            {
+                lockFile.getAbsoluteFile().getParentFile().mkdirs();
+                out = new FileOutputStream( lockFile );
+                properties.store( out, "Resolved GWT SDK classpaths" );
+            }
+            catch ( IOException e )
+            {
+                getLogger().warn( "Failed to write GWT SDK lock file " + lockFile + ": " + e.getMessage() );
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+    }
+
+    private synchronized Properties loadLockFile( File lockFile )
+    {
+        Properties properties = new Properties();
+        if ( lockFile.isFile() )
+        {
+            InputStream in = null;
+            try
+            {
+                in = new FileInputStream( lockFile );
+                properties.load( in );
+            }
+            catch ( IOException e )
+            {
+                getLogger().warn( "Failed to read GWT SDK lock file " + lockFile + ": " + e.getMessage() );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+        }
+        return properties;
+    }
+}
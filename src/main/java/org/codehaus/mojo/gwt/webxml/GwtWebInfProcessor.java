@@ -19,14 +19,23 @@ package org.codehaus.mojo.gwt.webxml;
  * under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.WriterFactory;
 import org.jdom.Comment;
 import org.jdom.Content;
@@ -37,7 +46,6 @@ import org.jdom.Namespace;
 import org.jdom.input.SAXBuilder;
 import org.jdom.output.Format;
 import org.jdom.output.XMLOutputter;
-import org.jdom.xpath.XPath;
 
 /**
  * <p>GwtWebInfProcessor class.</p>
@@ -47,20 +55,20 @@ import org.jdom.xpath.XPath;
  */
 public class GwtWebInfProcessor
 {
-    private static final String[] BEFORE_SERVLETS =
+    static final String[] BEFORE_SERVLETS =
         { "icon", "display-name", "description", "distributable", "context-param", "filter", "filter-mapping",
             "listener", "servlet" };
 
-    private static final String[] AFTER_SERVLETS =
+    static final String[] AFTER_SERVLETS =
         { "servlet-mapping", "session-config", "mime-mapping", "welcome-file-list", "error-page", "taglib",
             "resource-env-ref", "resource-ref", "security-constraint", "login-config", "security-role", "env-entry",
             "ejb-ref", "ejb-local-ref" };
 
-    private static final String[] BEFORE_MAPPINGS =
+    static final String[] BEFORE_MAPPINGS =
         { "icon", "display-name", "description", "distributable", "context-param", "filter", "filter-mapping",
             "listener", "servlet", "servlet-mapping" };
 
-    private static final String[] AFTER_MAPPINGS =
+    static final String[] AFTER_MAPPINGS =
         { "session-config", "mime-mapping", "welcome-file-list", "error-page", "taglib", "resource-env-ref",
             "resource-ref", "security-constraint", "login-config", "security-role", "env-entry", "ejb-ref",
             "ejb-local-ref" };
@@ -91,10 +99,44 @@ public class GwtWebInfProcessor
     {
         Document dom = insertServlets( sourceWebXml, servletDescriptors );
         XMLOutputter xmlOut = new XMLOutputter( Format.getPrettyFormat() );
-        Writer writer = WriterFactory.newXmlWriter( mergeWebXml );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Writer writer = WriterFactory.newXmlWriter( bytes );
         xmlOut.output( dom, writer );
-        writer.flush();
         writer.close();
+        write( mergeWebXml, bytes.toByteArray() );
+    }
+
+    /**
+     * Write a file unless it already has the expected content, so that it keeps its timestamp and isn't seen as
+     * modified by the war packaging.
+     */
+    static void write( File file, byte[] content )
+        throws IOException
+    {
+        if ( file.isFile() && file.length() == content.length )
+        {
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                if ( Arrays.equals( content, IOUtil.toByteArray( in ) ) )
+                {
+                    return;
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content );
+        }
+        finally
+        {
+            out.close();
+        }
     }
 
     private Document insertServlets( File webXml, Collection<ServletDescriptor> servletDescriptors )
@@ -110,19 +152,32 @@ public class GwtWebInfProcessor
         Element webapp = dom.getRootElement();
         Namespace ns = webapp.getNamespace();
 
-        int insertAfter = getInsertPosition( webapp, BEFORE_SERVLETS, AFTER_SERVLETS );
+        // names of the servlets already declared in the web.xml
+        Set<String> servletNames = new HashSet<String>();
+        for ( Object child : webapp.getChildren() )
+        {
+            Element element = (Element) child;
+            if ( "servlet".equals( element.getName() ) )
+            {
+                Element servletName = element.getChild( "servlet-name", element.getNamespace() );
+                if ( servletName != null )
+                {
+                    servletNames.add( servletName.getText() );
+                }
+            }
+        }
+
+        List<Element> servlets = new ArrayList<Element>();
         for ( Iterator<ServletDescriptor> it = servletDescriptors.iterator(); it.hasNext(); )
         {
             ServletDescriptor d = it.next();
-            XPath path = XPath.newInstance( "/web-app/servlet/servlet-name[text() = '" + d.getName() + "']" );
-            if ( path.selectNodes( dom ).size() > 0 )
+            if ( !servletNames.add( d.getName() ) )
             {
                 // Allready declared in target web.xml
                 it.remove();
                 continue;
             }
 
-            insertAfter++;
             Element servlet = new Element( "servlet", ns );
             Element servletName = new Element( "servlet-name", ns );
             servletName.setText( d.getName() );
@@ -130,12 +185,14 @@ public class GwtWebInfProcessor
             Element servletClass = new Element( "servlet-class", ns );
             servletClass.setText( d.getClassName() );
             servlet.addContent( servletClass );
-            webapp.addContent( insertAfter, servlet );
+            servlets.add( servlet );
         }
-        insertAfter = getInsertPosition( webapp, BEFORE_MAPPINGS, AFTER_MAPPINGS );
+        int insertAfter = getInsertPosition( webapp, BEFORE_SERVLETS, AFTER_SERVLETS );
+        webapp.addContent( insertAfter + 1, servlets );
+
+        List<Element> servletMappings = new ArrayList<Element>();
         for ( ServletDescriptor d : servletDescriptors )
         {
-            insertAfter++;
             Element servletMapping = new Element( "servlet-mapping", ns );
             Element servletName = new Element( "servlet-name", ns );
             servletName.setText( d.getName() );
@@ -148,8 +205,10 @@ public class GwtWebInfProcessor
             }
             urlPattern.setText( path );
             servletMapping.addContent( urlPattern );
-            webapp.addContent( insertAfter, servletMapping );
+            servletMappings.add( servletMapping );
         }
+        insertAfter = getInsertPosition( webapp, BEFORE_MAPPINGS, AFTER_MAPPINGS );
+        webapp.addContent( insertAfter + 1, servletMappings );
         return dom;
     }
 
@@ -159,18 +218,8 @@ public class GwtWebInfProcessor
         List children = webapp.getContent();
         Content insertAfter = new Comment( "inserted by gwt-maven-plugin" );
 
-        ArrayList<String> namesBefore = new ArrayList<String>();
-        ArrayList<String> namesAfter = new ArrayList<String>();
-
-        for ( int i = 0; i < startAfter.length; i++ )
-        {
-            namesBefore.add( startAfter[i] );
-        }
-
-        for ( int i = 0; i < stopBefore.length; i++ )
-        {
-            namesAfter.add( stopBefore[i] );
-        }
+        Set<String> namesBefore = new HashSet<String>( Arrays.asList( startAfter ) );
+        Set<String> namesAfter = new HashSet<String>( Arrays.asList( stopBefore ) );
 
         if ( ( children == null ) || ( children.size() == 0 ) )
         {
@@ -19,7 +19,6 @@ package org.codehaus.mojo.gwt.webxml;
  * under the License.
  */
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -30,14 +29,18 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.codehaus.mojo.gwt.GwtModule;
 import org.codehaus.mojo.gwt.shell.AbstractGwtWebMojo;
+import org.codehaus.mojo.gwt.utils.Fingerprint;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Merges GWT servlet elements into deployment descriptor (and non GWT servlets into shell).
@@ -78,6 +81,27 @@ public class MergeWebXmlMojo
     @Component
     private ServletAnnotationFinder servletAnnotationFinder;
 
+    /**
+     * Merge servlets with a streaming processor, that keeps the formatting of the web.xml and whose memory use doesn't
+     * depend on its size, rather than pretty printing the merged web.xml. Servlets are inserted at the same positions.
+     * <p>
+     * Can be set from command line using '-Dgwt.mergewebxml.streaming=true'
+     * </p>
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "false", property = "gwt.mergewebxml.streaming")
+    private boolean streaming;
+
+    /**
+     * Fingerprint of the inputs of the last merge (web.xml, module descriptors, compiled classes when scanning for
+     * annotated servlets) and of the merged web.xml, to skip the merge, and the servlet scan, when they are unchanged.
+     *
+     * @since 2.8.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/gwt-mergewebxml.properties", readonly = true)
+    private File fingerprintFile;
+
     /** {@inheritDoc} */
     @Override
     protected boolean isGenerator() {
@@ -103,21 +127,13 @@ public class MergeWebXmlMojo
 
         try
         {
-            if ( !mergedWebXml.exists() )
-            {
-                mergedWebXml.getParentFile().mkdirs();
-                mergedWebXml.createNewFile();
-            }
-
-            FileUtils.copyFile( getWebXml(), mergedWebXml );
+            boolean scanAnnotations = scanRemoteServiceRelativePathAnnotation && packageNamePerModule != null;
 
+            // the servlets of the module descriptors, and what they inherit, are cheap to read
             Set<ServletDescriptor> servlets = new LinkedHashSet<ServletDescriptor>();
-            
-
             for ( String module : getModules() )
             {
                 GwtModule gwtModule = readModule( module );
-
                 Map<String, String> moduleServlets = isWebXmlServletPathAsIs() ? gwtModule.getServlets( "" )
                                                                               : gwtModule.getServlets();
                 getLog().debug( "merge " + moduleServlets.size() + " servlets from module " + module );
@@ -125,8 +141,41 @@ public class MergeWebXmlMojo
                 {
                     servlets.add( new ServletDescriptor( servlet.getKey(), servlet.getValue() ) );
                 }
+            }
+
+            // fingerprint the inputs before reading any class, which is what takes time
+            Fingerprint previous = Fingerprint.load( fingerprintFile );
+            Fingerprint inputs = new Fingerprint( previous );
+            inputs.addFile( getWebXml() );
+            inputs.addValue( "options", streaming + ";" + isWebXmlServletPathAsIs() + ";" + scanAnnotations + ";"
+                + ( scanAnnotations ? new TreeMap<String, String>( packageNamePerModule ) : null ) );
+            inputs.addValue( "modules", Arrays.toString( getModules() ) );
+            StringBuilder descriptors = new StringBuilder();
+            for ( ServletDescriptor servlet : servlets )
+            {
+                descriptors.append( servlet.getPath() ).append( '=' ).append( servlet.getClassName() ).append( ';' );
+            }
+            inputs.addValue( "servlets", descriptors.toString() );
+            if ( scanAnnotations )
+            {
+                inputs.addDirectory( new File( getProject().getBuild().getOutputDirectory() ),
+                                     new String[] { "**/*.class" } );
+            }
+            if ( previous != null && mergedWebXml.isFile()
+                && getFingerprint( inputs, previous ).getDifference( previous ) == null )
+            {
+                getLog().info( mergedWebXml + " is up to date" );
+                return;
+            }
+
+            // the compiled classes are read once for all modules
+            ServletIndex servletIndex = null;
+
+            for ( String module : getModules() )
+            {
+                GwtModule gwtModule = readModule( module );
 
-                if ( scanRemoteServiceRelativePathAnnotation && packageNamePerModule != null )
+                if ( scanAnnotations )
                 {
                     String packageName = packageNamePerModule.get( gwtModule.getName() );
                     if ( StringUtils.isBlank( packageName ) )
@@ -138,8 +187,12 @@ public class MergeWebXmlMojo
                     {
                         getLog().debug( "search annotated servlet with package name " + packageName + " in module "
                                             + gwtModule.getName() );
-                        Set<ServletDescriptor> annotatedServlets = servletAnnotationFinder
-                            .findServlets( packageName, isWebXmlServletPathAsIs() ? null : gwtModule.getPath(), getAnnotationSearchClassLoader() );
+                        if ( servletIndex == null )
+                        {
+                            servletIndex = servletAnnotationFinder.newIndex( getAnnotationSearchClassLoader() );
+                        }
+                        Set<ServletDescriptor> annotatedServlets = servletIndex
+                            .findServlets( packageName, isWebXmlServletPathAsIs() ? null : gwtModule.getPath() );
                         servlets.addAll( annotatedServlets );
                     } else
                     {
@@ -150,8 +203,25 @@ public class MergeWebXmlMojo
 
             }
 
-            new GwtWebInfProcessor().process( mergedWebXml, mergedWebXml, servlets );
+            mergedWebXml.getParentFile().mkdirs();
+            if ( streaming )
+            {
+                new StaxWebInfProcessor().process( getWebXml(), mergedWebXml, servlets );
+            }
+            else
+            {
+                new GwtWebInfProcessor().process( getWebXml(), mergedWebXml, servlets );
+            }
             getLog().info( servlets.size() + " servlet(s) merged into " + mergedWebXml );
+
+            try
+            {
+                getFingerprint( inputs, previous ).store( fingerprintFile );
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Failed to store the fingerprint of " + mergedWebXml + " : " + e.getMessage() );
+            }
         }
         catch ( Exception e )
         {
@@ -159,6 +229,19 @@ public class MergeWebXmlMojo
         }
     }
     
+    /**
+     * The fingerprint of the inputs and of the merged web.xml, so that a merged web.xml changed or deleted by someone
+     * else is merged again.
+     */
+    private Fingerprint getFingerprint( Fingerprint inputs, Fingerprint previous )
+        throws IOException
+    {
+        Fingerprint fingerprint = new Fingerprint( previous );
+        fingerprint.addAll( inputs );
+        fingerprint.addFile( mergedWebXml );
+        return fingerprint;
+    }
+
     private ClassLoader getAnnotationSearchClassLoader()
         throws MalformedURLException
     {
@@ -0,0 +1,257 @@
+package org.codehaus.mojo.gwt.webxml;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.plexus.logging.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.util.ClassUtils;
+
+import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
+
+/**
+ * Index of the <code>RemoteServiceServlet</code> implementations of a class loader, and of the
+ * {@link RemoteServiceRelativePath} of their services, built once and queried for each module.
+ * <p>
+ * A package is scanned for class files the first time it, or a parent package, is queried. Class files are read once,
+ * including the superclasses and interfaces of the scanned classes: whether a class extends
+ * <code>RemoteServiceServlet</code> and the relative path of a service interface are memoized.
+ *
+ * @since 2.8.0
+ */
+public class ServletIndex
+{
+    private static final String REMOTE_SERVICE_SERVLET = "com.google.gwt.user.server.rpc.RemoteServiceServlet";
+
+    private final PathMatchingResourcePatternResolver resourceResolver;
+
+    private final MetadataReaderFactory metadataReaderFactory;
+
+    private final Logger logger;
+
+    /** Packages already scanned, "" for the default package */
+    private final List<String> scannedPackages = new ArrayList<String>();
+
+    /** Servlet class name to the relative path of its service, in scan order */
+    private final Map<String, String> servlets = new LinkedHashMap<String, String>();
+
+    /** Class name to whether it extends RemoteServiceServlet */
+    private final Map<String, Boolean> remoteServlets = new HashMap<String, Boolean>();
+
+    /** Interface name to its RemoteServiceRelativePath value, null if not annotated */
+    private final Map<String, String> relativePaths = new HashMap<String, String>();
+
+    /**
+     * <p>Constructor for ServletIndex.</p>
+     *
+     * @param classLoader the class loader to search servlets in
+     * @param logger a {@link org.codehaus.plexus.logging.Logger} object.
+     */
+    public ServletIndex( ClassLoader classLoader, Logger logger )
+    {
+        this.resourceResolver = new PathMatchingResourcePatternResolver( classLoader );
+        this.metadataReaderFactory = new CachingMetadataReaderFactory( resourceResolver );
+        this.logger = logger;
+    }
+
+    /**
+     * Find the servlets of a package and its sub packages.
+     *
+     * @param packageName the package to search
+     * @param startPath the path to prefix the servlet paths with, may be <code>null</code>
+     * @return cannot return <code>null</code>
+     * @throws java.io.IOException if the class files can't be read
+     */
+    public synchronized Set<ServletDescriptor> findServlets( String packageName, String startPath )
+        throws IOException
+    {
+        scan( packageName );
+
+        Set<ServletDescriptor> descriptors = new LinkedHashSet<ServletDescriptor>();
+        for ( Map.Entry<String, String> servlet : servlets.entrySet() )
+        {
+            if ( !isInPackage( servlet.getKey(), packageName ) )
+            {
+                continue;
+            }
+            StringBuilder path = new StringBuilder();
+            if ( StringUtils.isNotBlank( startPath ) )
+            {
+                if ( !startPath.startsWith( "/" ) )
+                {
+                    path.append( '/' );
+                }
+                path.append( startPath );
+            }
+            String annotationPathValue = servlet.getValue();
+            if ( !annotationPathValue.startsWith( "/" ) )
+            {
+                path.append( '/' );
+            }
+            path.append( annotationPathValue );
+            descriptors.add( new ServletDescriptor( path.toString(), servlet.getKey() ) );
+        }
+        return descriptors;
+    }
+
+    private static boolean isInPackage( String name, String packageName )
+    {
+        return packageName.length() == 0
+            || ( name.startsWith( packageName ) && name.length() > packageName.length()
+                && name.charAt( packageName.length() ) == '.' );
+    }
+
+    private void scan( String packageName )
+        throws IOException
+    {
+        for ( String scanned : scannedPackages )
+        {
+            if ( scanned.equals( packageName ) || isInPackage( packageName, scanned ) )
+            {
+                return;
+            }
+        }
+        scannedPackages.add( packageName );
+
+        String pattern = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+            + ClassUtils.convertClassNameToResourcePath( packageName ) + "/**/*.class";
+        Resource[] resources = resourceResolver.getResources( pattern );
+        logger.debug( "springresource " + resources.length + " for pattern " + pattern );
+        for ( Resource resource : resources )
+        {
+            MetadataReader metadataReader = metadataReaderFactory.getMetadataReader( resource );
+            ClassMetadata classMetadata = metadataReader.getClassMetadata();
+            String className = classMetadata.getClassName();
+            if ( servlets.containsKey( className ) )
+            {
+                continue;
+            }
+            String relativePath = getRelativePathIfServlet( classMetadata );
+            if ( relativePath != null )
+            {
+                logger.debug( "found RemoteServiceRelativePath annotation for class " + className );
+                servlets.put( className, relativePath );
+            }
+        }
+    }
+
+    private String getRelativePathIfServlet( ClassMetadata classMetadata )
+    {
+        try
+        {
+            if ( classMetadata.isConcrete() && extendsRemoteServlet( classMetadata ) )
+            {
+                for ( String name : classMetadata.getInterfaceNames() )
+                {
+                    String relativePath = getRelativePath( name );
+                    if ( relativePath != null )
+                    {
+                        return relativePath;
+                    }
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Failed to read class metadata: " + e );
+        }
+        return null;
+    }
+
+    private boolean extendsRemoteServlet( ClassMetadata classMetadata )
+        throws IOException
+    {
+        if ( !classMetadata.hasSuperClass() )
+        {
+            return false;
+        }
+        String name = classMetadata.getSuperClassName();
+        Boolean remoteServlet = remoteServlets.get( name );
+        if ( remoteServlet == null )
+        {
+            if ( name.equals( REMOTE_SERVICE_SERVLET ) )
+            {
+                remoteServlet = Boolean.TRUE;
+            }
+            else if ( name.startsWith( "java." ) )
+            {
+                // JDK classes can't extend RemoteServiceServlet, and may use a class format newer than ASM supports
+                remoteServlet = Boolean.FALSE;
+            }
+            else
+            {
+                MetadataReader reader = getMetadataReader( name );
+                remoteServlet = reader != null && extendsRemoteServlet( reader.getClassMetadata() );
+            }
+            remoteServlets.put( name, remoteServlet );
+        }
+        return remoteServlet;
+    }
+
+    private String getRelativePath( String interfaceName )
+        throws IOException
+    {
+        if ( relativePaths.containsKey( interfaceName ) )
+        {
+            return relativePaths.get( interfaceName );
+        }
+        String relativePath = null;
+        MetadataReader reader = getMetadataReader( interfaceName );
+        if ( reader != null )
+        {
+            AnnotationMetadata annotationMetadata = reader.getAnnotationMetadata();
+            if ( annotationMetadata.hasAnnotation( RemoteServiceRelativePath.class.getName() ) )
+            {
+                relativePath = (String) annotationMetadata
+                    .getAnnotationAttributes( RemoteServiceRelativePath.class.getName() ).get( "value" );
+            }
+        }
+        relativePaths.put( interfaceName, relativePath );
+        return relativePath;
+    }
+
+    private MetadataReader getMetadataReader( String className )
+        throws IOException
+    {
+        String resourcePath = ClassUtils.convertClassNameToResourcePath( className );
+        Resource resource = resourceResolver.getResource( resourcePath + ".class" );
+        if ( resource.exists() )
+        {
+            return metadataReaderFactory.getMetadataReader( resource );
+        }
+        return null;
+    }
+}
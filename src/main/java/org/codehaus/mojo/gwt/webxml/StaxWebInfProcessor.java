@@ -0,0 +1,355 @@
+package org.codehaus.mojo.gwt.webxml;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Streaming alternative to {@link GwtWebInfProcessor}, for very large deployment descriptors.
+ * <p>
+ * The web.xml is read twice with StAX: a first pass collects the names of the servlets already declared, the second
+ * one copies the document through and injects the <code>&lt;servlet&gt;</code> and
+ * <code>&lt;servlet-mapping&gt;</code> elements at the same positions as {@link GwtWebInfProcessor}. Memory use does
+ * not depend on the size of the web.xml. The original formatting of the web.xml is kept, rather than pretty printed.
+ *
+ * @since 2.8.0
+ */
+public class StaxWebInfProcessor
+{
+    private static final String COMMENT = "inserted by gwt-maven-plugin";
+
+    private static final Set<String> BEFORE_SERVLETS =
+        new HashSet<String>( Arrays.asList( GwtWebInfProcessor.BEFORE_SERVLETS ) );
+
+    private static final Set<String> AFTER_SERVLETS =
+        new HashSet<String>( Arrays.asList( GwtWebInfProcessor.AFTER_SERVLETS ) );
+
+    private static final Set<String> BEFORE_MAPPINGS =
+        new HashSet<String>( Arrays.asList( GwtWebInfProcessor.BEFORE_MAPPINGS ) );
+
+    private static final Set<String> AFTER_MAPPINGS =
+        new HashSet<String>( Arrays.asList( GwtWebInfProcessor.AFTER_MAPPINGS ) );
+
+    private final XMLInputFactory inputFactory;
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+    /**
+     * <p>Constructor for StaxWebInfProcessor.</p>
+     */
+    public StaxWebInfProcessor()
+    {
+        inputFactory = XMLInputFactory.newInstance();
+        // keep the DOCTYPE of 2.3 descriptors, without loading the DTD
+        inputFactory.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+    }
+
+    /**
+     * Merge servlets into a web.xml, see {@link GwtWebInfProcessor#process(File, File, Collection)}. The servlets
+     * already declared in the web.xml are removed from <code>servletDescriptors</code>.
+     *
+     * @param sourceWebXml the web.xml to merge servlets into
+     * @param mergeWebXml the file to write, only written if its content changes, may be the source web.xml
+     * @param servletDescriptors the servlets to merge
+     * @throws java.lang.Exception if any.
+     */
+    public void process( File sourceWebXml, File mergeWebXml, Collection<ServletDescriptor> servletDescriptors )
+        throws Exception
+    {
+        Set<String> servletNames = getServletNames( sourceWebXml );
+        for ( Iterator<ServletDescriptor> it = servletDescriptors.iterator(); it.hasNext(); )
+        {
+            if ( !servletNames.add( it.next().getName() ) )
+            {
+                // Allready declared in target web.xml
+                it.remove();
+            }
+        }
+
+        File tmp = new File( mergeWebXml.getPath() + ".tmp" );
+        InputStream in = new BufferedInputStream( new FileInputStream( sourceWebXml ) );
+        try
+        {
+            OutputStream out = new BufferedOutputStream( new FileOutputStream( tmp ) );
+            try
+            {
+                merge( in, out, servletDescriptors );
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+
+        if ( mergeWebXml.isFile() && FileUtils.contentEquals( tmp, mergeWebXml ) )
+        {
+            tmp.delete();
+        }
+        else
+        {
+            mergeWebXml.delete();
+            FileUtils.rename( tmp, mergeWebXml );
+        }
+    }
+
+    /**
+     * Pre-scan the web.xml for the names of the servlets it declares.
+     */
+    private Set<String> getServletNames( File webXml )
+        throws IOException, XMLStreamException
+    {
+        Set<String> names = new HashSet<String>();
+        InputStream in = new BufferedInputStream( new FileInputStream( webXml ) );
+        try
+        {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader( in );
+            int depth = 0;
+            boolean inServlet = false;
+            while ( reader.hasNext() )
+            {
+                int event = reader.next();
+                if ( event == XMLStreamConstants.START_ELEMENT )
+                {
+                    depth++;
+                    if ( depth == 2 )
+                    {
+                        inServlet = "servlet".equals( reader.getLocalName() );
+                    }
+                    else if ( depth == 3 && inServlet && "servlet-name".equals( reader.getLocalName() ) )
+                    {
+                        names.add( reader.getElementText() );
+                        // getElementText() consumed the end element
+                        depth--;
+                    }
+                }
+                else if ( event == XMLStreamConstants.END_ELEMENT )
+                {
+                    depth--;
+                }
+            }
+            reader.close();
+        }
+        finally
+        {
+            in.close();
+        }
+        return names;
+    }
+
+    private void merge( InputStream in, OutputStream out, Collection<ServletDescriptor> servletDescriptors )
+        throws XMLStreamException
+    {
+        XMLEventReader reader = inputFactory.createXMLEventReader( in );
+        XMLEventWriter writer = null;
+        String prefix = "";
+        String namespace = "";
+        boolean servletsPending = true;
+        boolean mappingsPending = true;
+        boolean servletsAfter = false;
+        boolean mappingsAfter = false;
+        int depth = 0;
+        while ( reader.hasNext() )
+        {
+            XMLEvent event = reader.nextEvent();
+            if ( writer == null )
+            {
+                String encoding = "UTF-8";
+                if ( event.isStartDocument() && ( (StartDocument) event ).encodingSet() )
+                {
+                    encoding = ( (StartDocument) event ).getCharacterEncodingScheme();
+                }
+                writer = outputFactory.createXMLEventWriter( out, encoding );
+            }
+
+            if ( event.isStartElement() )
+            {
+                depth++;
+                StartElement element = event.asStartElement();
+                if ( depth == 1 )
+                {
+                    prefix = element.getName().getPrefix();
+                    namespace = element.getName().getNamespaceURI();
+                }
+                else if ( depth == 2 )
+                {
+                    // same positions as GwtWebInfProcessor.getInsertPosition(), the mappings position being searched
+                    // once the servlets are inserted
+                    String name = element.getName().getLocalPart();
+                    if ( servletsPending )
+                    {
+                        if ( AFTER_SERVLETS.contains( name ) )
+                        {
+                            writeServlets( writer, prefix, namespace, servletDescriptors );
+                            servletsPending = false;
+                        }
+                        else if ( !BEFORE_SERVLETS.contains( name ) )
+                        {
+                            servletsAfter = true;
+                            servletsPending = false;
+                        }
+                    }
+                    if ( mappingsPending )
+                    {
+                        if ( AFTER_MAPPINGS.contains( name ) )
+                        {
+                            writeMappings( writer, prefix, namespace, servletDescriptors );
+                            mappingsPending = false;
+                        }
+                        else if ( !BEFORE_MAPPINGS.contains( name ) )
+                        {
+                            mappingsAfter = true;
+                            mappingsPending = false;
+                        }
+                    }
+                }
+                writer.add( event );
+            }
+            else if ( event.isEndElement() )
+            {
+                if ( depth == 1 )
+                {
+                    if ( servletsPending )
+                    {
+                        writeServlets( writer, prefix, namespace, servletDescriptors );
+                    }
+                    if ( mappingsPending )
+                    {
+                        writeMappings( writer, prefix, namespace, servletDescriptors );
+                    }
+                    if ( servletsPending || mappingsPending )
+                    {
+                        writer.add( eventFactory.createCharacters( "\n" ) );
+                    }
+                }
+                writer.add( event );
+                if ( depth == 2 )
+                {
+                    // inserted after this element, the mappings insert position being right after it as well
+                    if ( mappingsAfter )
+                    {
+                        writeMappings( writer, prefix, namespace, servletDescriptors );
+                        mappingsAfter = false;
+                    }
+                    if ( servletsAfter )
+                    {
+                        writeServlets( writer, prefix, namespace, servletDescriptors );
+                        servletsAfter = false;
+                    }
+                }
+                depth--;
+            }
+            else
+            {
+                writer.add( event );
+                if ( event.isStartDocument() )
+                {
+                    // whitespace outside of the root element isn't reported
+                    writer.add( eventFactory.createCharacters( "\n" ) );
+                }
+            }
+        }
+        reader.close();
+        if ( writer != null )
+        {
+            writer.flush();
+            writer.close();
+        }
+    }
+
+    private void writeServlets( XMLEventWriter writer, String prefix, String namespace,
+                                Collection<ServletDescriptor> servletDescriptors )
+        throws XMLStreamException
+    {
+        writer.add( eventFactory.createCharacters( "\n  " ) );
+        writer.add( eventFactory.createComment( COMMENT ) );
+        for ( ServletDescriptor d : servletDescriptors )
+        {
+            writer.add( eventFactory.createCharacters( "\n  " ) );
+            writer.add( eventFactory.createStartElement( prefix, namespace, "servlet" ) );
+            writeElement( writer, prefix, namespace, "servlet-name", d.getName() );
+            writeElement( writer, prefix, namespace, "servlet-class", d.getClassName() );
+            writer.add( eventFactory.createCharacters( "\n  " ) );
+            writer.add( eventFactory.createEndElement( prefix, namespace, "servlet" ) );
+        }
+    }
+
+    private void writeMappings( XMLEventWriter writer, String prefix, String namespace,
+                                Collection<ServletDescriptor> servletDescriptors )
+        throws XMLStreamException
+    {
+        writer.add( eventFactory.createCharacters( "\n  " ) );
+        writer.add( eventFactory.createComment( COMMENT ) );
+        for ( ServletDescriptor d : servletDescriptors )
+        {
+            String path = d.getPath();
+            if ( path.charAt( 0 ) != '/' )
+            {
+                path = '/' + path;
+            }
+            writer.add( eventFactory.createCharacters( "\n  " ) );
+            writer.add( eventFactory.createStartElement( prefix, namespace, "servlet-mapping" ) );
+            writeElement( writer, prefix, namespace, "servlet-name", d.getName() );
+            writeElement( writer, prefix, namespace, "url-pattern", path );
+            writer.add( eventFactory.createCharacters( "\n  " ) );
+            writer.add( eventFactory.createEndElement( prefix, namespace, "servlet-mapping" ) );
+        }
+    }
+
+    private void writeElement( XMLEventWriter writer, String prefix, String namespace, String name, String text )
+        throws XMLStreamException
+    {
+        writer.add( eventFactory.createCharacters( "\n    " ) );
+        writer.add( eventFactory.createStartElement( prefix, namespace, name ) );
+        writer.add( eventFactory.createCharacters( text ) );
+        writer.add( eventFactory.createEndElement( prefix, namespace, name ) );
+    }
+}
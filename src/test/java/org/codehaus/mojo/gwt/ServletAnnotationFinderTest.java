@@ -24,6 +24,7 @@ import java.util.Set;
 import org.codehaus.mojo.gwt.servlets.HelloRemoteServlet;
 import org.codehaus.mojo.gwt.webxml.ServletAnnotationFinder;
 import org.codehaus.mojo.gwt.webxml.ServletDescriptor;
+import org.codehaus.mojo.gwt.webxml.ServletIndex;
 import org.codehaus.plexus.PlexusTestCase;
 
 /**
@@ -76,6 +77,25 @@ public class ServletAnnotationFinderTest
         ServletDescriptor desc = servletDescriptors.iterator().next();
         assertEquals( HelloRemoteServlet.class.getName(), desc.getClassName() );
         assertEquals( "/foo/HelloService", desc.getPath() );
-    }  
+    }
+
+    public void testIndexQueriedPerModule()
+        throws Exception
+    {
+        ServletAnnotationFinder servletAnnotationFinder = (ServletAnnotationFinder) lookup( ServletAnnotationFinder.class
+            .getName() );
+        ServletIndex index = servletAnnotationFinder.newIndex( Thread.currentThread().getContextClassLoader() );
+
+        // scans the parent package once, sub packages are then queried in memory
+        assertEquals( 1, index.findServlets( "org.codehaus.mojo.gwt", null ).size() );
+        Set<ServletDescriptor> servletDescriptors = index.findServlets( "org.codehaus.mojo.gwt.servlets", "foo" );
+        assertEquals( 1, servletDescriptors.size() );
+        ServletDescriptor desc = servletDescriptors.iterator().next();
+        assertEquals( HelloRemoteServlet.class.getName(), desc.getClassName() );
+        assertEquals( "/foo/HelloService", desc.getPath() );
+
+        assertTrue( index.findServlets( "org.codehaus.mojo.gwt.serv", null ).isEmpty() );
+        assertTrue( index.findServlets( "org.codehaus.mojo.gwt.webxml", null ).isEmpty() );
+    }
 
 }
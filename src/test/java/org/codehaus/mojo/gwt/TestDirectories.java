@@ -0,0 +1,52 @@
+package org.codehaus.mojo.gwt;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Scratch directories for tests that work on files.
+ */
+public final class TestDirectories
+{
+    private TestDirectories()
+    {
+        // utility class
+    }
+
+    /**
+     * Create an empty directory <code>target/&lt;name&gt;-test</code>, deleting the files of a previous run.
+     *
+     * @param name the directory name, unique to the test
+     * @return the empty directory
+     * @throws IOException if the previous files can't be deleted
+     */
+    public static File newScratchDirectory( String name )
+        throws IOException
+    {
+        File directory = new File( "target/" + name + "-test" );
+        FileUtils.deleteDirectory( directory );
+        directory.mkdirs();
+        return directory;
+    }
+}
@@ -0,0 +1,116 @@
+package org.codehaus.mojo.gwt.reports;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+
+/**
+ * Check the size index of the raw SOYC files, for the permutation with the largest initial download.
+ */
+public class SoycSizeIndexTest
+    extends TestCase
+{
+    private File soycReport;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        File basedir = TestDirectories.newScratchDirectory( "soyc" );
+        soycReport = new File( basedir, "app/soycReport" );
+        soycReport.mkdirs();
+    }
+
+    public void testIndex()
+        throws Exception
+    {
+        write( "stories0.xml.gz", "<sizemaps>\n"
+            + "<sizemap fragment=\"0\" size=\"100\">\n"
+            + "  <size type=\"type\" ref=\"com.foo.client.App\" size=\"10\"/>\n"
+            + "  <size type=\"method\" ref=\"com.foo.client.App::onModuleLoad()V\" size=\"60\"/>\n"
+            + "  <size type=\"string\" ref=\"hello\" size=\"30\"/>\n"
+            + "</sizemap>\n"
+            + "<sizemap fragment=\"1\" size=\"50\">\n"
+            + "  <size type=\"field\" ref=\"com.foo.shared.Dto::name\" size=\"50\"/>\n"
+            + "</sizemap>\n"
+            + "<sizemap fragment=\"2\" size=\"20\">\n"
+            + "  <size type=\"method\" ref=\"Main::run()V\" size=\"20\"/>\n"
+            + "</sizemap>\n"
+            + "</sizemaps>" );
+        write( "splitPoints0.xml.gz", "<soyc><splitpoints>"
+            + "<splitpoint id=\"1\" location=\"com.foo.client.App.onModuleLoad\"/>"
+            + "<splitpoint id=\"2\" location=\"com.foo.client.App.lazy\"/>"
+            + "</splitpoints><initialseq><splitpointref id=\"1\"/></initialseq></soyc>" );
+        // smaller permutation, without initial load sequence
+        write( "stories1.xml.gz", "<sizemaps><sizemap fragment=\"0\" size=\"90\"/></sizemaps>" );
+
+        SoycSizeIndex index = SoycSizeIndex.parse( "app", soycReport, 2 );
+        assertIndex( index );
+
+        File stored = new File( soycReport, "index.properties" );
+        index.store( stored );
+        assertIndex( SoycSizeIndex.load( stored ) );
+    }
+
+    private void assertIndex( SoycSizeIndex index )
+    {
+        assertEquals( "app", index.getModule() );
+        assertEquals( 0, index.getPermutation() );
+        assertEquals( 2, index.getPermutationCount() );
+        assertEquals( 150, index.getInitialSize() );
+        assertEquals( 170, index.getTotalSize() );
+        assertEquals( Long.valueOf( 20 ), index.getFragmentSizes().get( 2 ) );
+        assertEquals( "com.foo.client.App.lazy", index.getSplitPoints().get( 2 ) );
+        assertTrue( index.isInitial( 1 ) );
+        assertFalse( index.isInitial( 2 ) );
+
+        Iterator<String> classes = index.getTopClasses().keySet().iterator();
+        assertEquals( "com.foo.client.App", classes.next() );
+        assertEquals( "com.foo.shared.Dto", classes.next() );
+        assertFalse( classes.hasNext() );
+        assertEquals( Long.valueOf( 70 ), index.getTopClasses().get( "com.foo.client.App" ) );
+        assertEquals( Long.valueOf( 70 ), index.getTopPackages().get( "com.foo.client" ) );
+    }
+
+    private void write( String name, String xml )
+        throws Exception
+    {
+        Writer writer =
+            new OutputStreamWriter( new GZIPOutputStream( new FileOutputStream( new File( soycReport, name ) ) ),
+                                    "UTF-8" );
+        try
+        {
+            writer.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xml );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
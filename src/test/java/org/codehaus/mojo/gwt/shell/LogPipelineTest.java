@@ -0,0 +1,216 @@
+package org.codehaus.mojo.gwt.shell;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Check the output of GWT tools is logged at the level of each line, rate limited, and that errors and warnings are
+ * never dropped.
+ */
+public class LogPipelineTest
+    extends TestCase
+{
+    public void testLevels()
+        throws Exception
+    {
+        RecordingLog log = new RecordingLog( true );
+        LogPipeline pipeline = new LogPipeline( log, 0, null );
+        StreamConsumer out = pipeline.getOut();
+        StreamConsumer err = pipeline.getErr();
+        out.consumeLine( "Compiling module org.acme.App" );
+        out.consumeLine( "   [ERROR] Line 12: No source code is available" );
+        out.consumeLine( "      [WARN] Deprecated" );
+        out.consumeLine( "   [TRACE] Finding entry point classes" );
+        out.consumeLine( "[unknown marker] info" );
+        err.consumeLine( "Exception in thread \"main\"" );
+        err.consumeLine( "   [INFO] Linking" );
+        pipeline.close();
+
+        assertEquals( "info Compiling module org.acme.App", log.lines.get( 0 ) );
+        assertEquals( "error    [ERROR] Line 12: No source code is available", log.lines.get( 1 ) );
+        assertEquals( "warn       [WARN] Deprecated", log.lines.get( 2 ) );
+        assertEquals( "debug    [TRACE] Finding entry point classes", log.lines.get( 3 ) );
+        assertEquals( "info [unknown marker] info", log.lines.get( 4 ) );
+        assertEquals( "error Exception in thread \"main\"", log.lines.get( 5 ) );
+        assertEquals( "info    [INFO] Linking", log.lines.get( 6 ) );
+        assertEquals( 7, log.lines.size() );
+    }
+
+    public void testPrefix()
+        throws Exception
+    {
+        RecordingLog log = new RecordingLog( false );
+        LogPipeline pipeline = new LogPipeline( log, 0, null, "[org.acme.App] " );
+        pipeline.getOut().consumeLine( "   [WARN] Deprecated" );
+        pipeline.close();
+        assertEquals( "warn [org.acme.App]    [WARN] Deprecated", log.lines.get( 0 ) );
+    }
+
+    public void testRateLimit()
+        throws Exception
+    {
+        File logFile = new File( TestDirectories.newScratchDirectory( "log-pipeline" ), "Compiler.log.gz" );
+        RecordingLog log = new RecordingLog( false );
+        LogPipeline pipeline = new LogPipeline( log, 10, logFile );
+        StreamConsumer out = pipeline.getOut();
+        for ( int i = 0; i < 100; i++ )
+        {
+            out.consumeLine( "[INFO] line " + i );
+            out.consumeLine( "[DEBUG] not logged" );
+        }
+        out.consumeLine( "[ERROR] failed" );
+        pipeline.close();
+
+        int info = 0;
+        int dropped = 0;
+        for ( String line : log.lines )
+        {
+            if ( line.startsWith( "info " ) )
+            {
+                info++;
+            }
+            else if ( line.startsWith( "warn " ) )
+            {
+                assertTrue( line, line.endsWith( " lines of output not logged, see " + logFile ) );
+                dropped += Integer.parseInt( line.substring( "warn ".length(), line.indexOf( ' ', 5 ) ) );
+            }
+        }
+        // the limit applies per second, which the loop may straddle
+        assertTrue( String.valueOf( info ), info >= 10 && info <= 20 );
+        assertEquals( 100, info + dropped );
+        assertTrue( log.lines.contains( "error [ERROR] failed" ) );
+
+        // the log file has the full output
+        GZIPInputStream in = new GZIPInputStream( new FileInputStream( logFile ) );
+        String content;
+        try
+        {
+            content = IOUtil.toString( in, "UTF-8" );
+        }
+        finally
+        {
+            in.close();
+        }
+        assertEquals( 201, content.split( "\n" ).length );
+    }
+
+    public void testFullQueue()
+        throws Exception
+    {
+        final CountDownLatch blocked = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        RecordingLog log = new RecordingLog( false )
+        {
+            @Override
+            public void info( CharSequence content )
+            {
+                if ( "first".equals( content.toString() ) )
+                {
+                    // stall the pipeline, as a slow console would
+                    blocked.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.info( content );
+            }
+        };
+        LogPipeline pipeline = new LogPipeline( log, 0, null );
+        StreamConsumer out = pipeline.getOut();
+        out.consumeLine( "first" );
+        blocked.await();
+        for ( int i = 0; i < 20000; i++ )
+        {
+            out.consumeLine( "line " + i );
+        }
+        out.consumeLine( "[WARN] a warning" );
+        pipeline.getErr().consumeLine( "an error" );
+
+        // logged while the pipeline is still stalled
+        assertTrue( log.lines.contains( "warn [WARN] a warning" ) );
+        assertTrue( log.lines.contains( "error an error" ) );
+
+        release.countDown();
+        pipeline.close();
+        String last = log.lines.get( log.lines.size() - 1 );
+        assertTrue( last, last.matches( "warn \\d+ lines of output not logged" ) );
+    }
+
+    private static class RecordingLog
+        extends SystemStreamLog
+    {
+        final List<String> lines = new ArrayList<String>();
+
+        private final boolean debug;
+
+        RecordingLog( boolean debug )
+        {
+            this.debug = debug;
+        }
+
+        @Override
+        public boolean isDebugEnabled()
+        {
+            return debug;
+        }
+
+        @Override
+        public synchronized void debug( CharSequence content )
+        {
+            lines.add( "debug " + content );
+        }
+
+        @Override
+        public synchronized void info( CharSequence content )
+        {
+            lines.add( "info " + content );
+        }
+
+        @Override
+        public synchronized void warn( CharSequence content )
+        {
+            lines.add( "warn " + content );
+        }
+
+        @Override
+        public synchronized void error( CharSequence content )
+        {
+            lines.add( "error " + content );
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Check the module descriptors listed from the zip central directory, and from <code>ZipFile</code> for archives the
+ * central directory parser doesn't handle.
+ */
+public class ClasspathResourceIndexTest
+    extends TestCase
+{
+    private File basedir;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = TestDirectories.newScratchDirectory( "resource-index" );
+    }
+
+    public void testCentralDirectory()
+        throws Exception
+    {
+        File jar = writeJar( new File( basedir, "lib.jar" ), "a jar comment" );
+
+        ClasspathResourceIndex index = new ClasspathResourceIndex();
+        assertEquals( new HashSet<String>( Arrays.asList( "org/acme/Acme.gwt.xml", "org/acme/sub/S\u00fcb.gwt.xml" ) ),
+                      index.getModules( jar ) );
+
+        URL url = index.findModule( Collections.singletonList( jar ), "org/acme/Acme.gwt.xml" );
+        assertEquals( "jar:" + jar.toURI().toURL() + "!/org/acme/Acme.gwt.xml", url.toString() );
+        assertNull( index.findModule( Collections.singletonList( jar ), "org/acme/Acme.java" ) );
+    }
+
+    public void testPrefixedArchive()
+        throws Exception
+    {
+        // a self-extracting archive: entry offsets don't account for the stub, only ZipFile reads it
+        File zip = writeJar( new File( basedir, "lib.zip" ), null );
+        File prefixed = new File( basedir, "prefixed.jar" );
+        OutputStream out = new FileOutputStream( prefixed );
+        try
+        {
+            out.write( "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes( "UTF-8" ) );
+            FileInputStream in = new FileInputStream( zip );
+            try
+            {
+                IOUtil.copy( in, out );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+
+        assertEquals( new HashSet<String>( Arrays.asList( "org/acme/Acme.gwt.xml", "org/acme/sub/S\u00fcb.gwt.xml" ) ),
+                      new ClasspathResourceIndex().getModules( prefixed ) );
+    }
+
+    public void testNotAnArchive()
+        throws Exception
+    {
+        File file = new File( basedir, "broken.jar" );
+        FileUtils.fileWrite( file.getPath(), "not a zip" );
+        assertTrue( new ClasspathResourceIndex().getModules( file ).isEmpty() );
+    }
+
+    private File writeJar( File file, String comment )
+        throws Exception
+    {
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( file ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "org/acme/" ) );
+            out.putNextEntry( new ZipEntry( "org/acme/Acme.gwt.xml" ) );
+            out.write( "<module/>".getBytes( "UTF-8" ) );
+            out.putNextEntry( new ZipEntry( "org/acme/Acme.java" ) );
+            out.write( "class Acme {}".getBytes( "UTF-8" ) );
+            ZipEntry sub = new ZipEntry( "org/acme/sub/S\u00fcb.gwt.xml" );
+            sub.setComment( "an entry comment" );
+            out.putNextEntry( sub );
+            out.write( "<module/>".getBytes( "UTF-8" ) );
+            if ( comment != null )
+            {
+                out.setComment( comment );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,97 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Check only modified files are copied, and stale ones deleted.
+ */
+public class FileSynchronizerTest
+    extends TestCase
+{
+    private File basedir;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = TestDirectories.newScratchDirectory( "synchronizer" );
+        new File( basedir, "src" ).mkdirs();
+    }
+
+    public void testSynchronize()
+        throws Exception
+    {
+        File foo = new File( basedir, "src/Foo.java" );
+        File bar = new File( basedir, "src/Bar.java" );
+        FileUtils.fileWrite( foo.getPath(), "class Foo {}" );
+        FileUtils.fileWrite( bar.getPath(), "class Bar {}" );
+        Map<String, File> sources = new HashMap<String, File>();
+        sources.put( "Foo.java", foo );
+        sources.put( "Bar.java", bar );
+        File target = new File( basedir, "target" );
+        FileSynchronizer synchronizer =
+            new FileSynchronizer( new File( basedir, "state.properties" ) ).setCompareContent( true );
+
+        synchronizer.synchronize( sources, target );
+        assertEquals( 2, synchronizer.getCopied() );
+        assertEquals( "class Foo {}", FileUtils.fileRead( new File( target, "Foo.java" ) ) );
+
+        // only touched
+        foo.setLastModified( foo.lastModified() - 10000 );
+        synchronizer.synchronize( sources, target );
+        assertEquals( 0, synchronizer.getCopied() );
+
+        FileUtils.fileWrite( foo.getPath(), "class Foo {int i;}" );
+        sources.remove( "Bar.java" );
+        synchronizer.synchronize( sources, target );
+        assertEquals( 1, synchronizer.getCopied() );
+        assertEquals( 1, synchronizer.getDeleted() );
+        assertEquals( "class Foo {int i;}", FileUtils.fileRead( new File( target, "Foo.java" ) ) );
+        assertFalse( new File( target, "Bar.java" ).exists() );
+    }
+
+    public void testDeletedEmptyTarget()
+        throws Exception
+    {
+        File marker = new File( basedir, "src/marker.txt" );
+        FileUtils.fileWrite( marker.getPath(), "" );
+        Map<String, File> sources = new HashMap<String, File>();
+        sources.put( "marker.txt", marker );
+        File target = new File( basedir, "target" );
+        FileSynchronizer synchronizer = new FileSynchronizer( new File( basedir, "state.properties" ) );
+
+        synchronizer.synchronize( sources, target );
+        assertTrue( new File( target, "marker.txt" ).isFile() );
+
+        new File( target, "marker.txt" ).delete();
+        synchronizer.synchronize( sources, target );
+        assertEquals( 1, synchronizer.getCopied() );
+        assertTrue( new File( target, "marker.txt" ).isFile() );
+    }
+}
@@ -0,0 +1,121 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Check fingerprints only rely on content, not on timestamps.
+ */
+public class FingerprintTest
+    extends TestCase
+{
+    private File basedir;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = TestDirectories.newScratchDirectory( "fingerprint" );
+        new File( basedir, "src" ).mkdirs();
+    }
+
+    public void testUnchangedContent()
+        throws Exception
+    {
+        File source = new File( basedir, "src/Foo.java" );
+        FileUtils.fileWrite( source.getPath(), "class Foo {}" );
+
+        Fingerprint fingerprint = new Fingerprint( null );
+        fingerprint.addValue( "args", "-style OBF" );
+        fingerprint.addDirectory( new File( basedir, "src" ), null );
+        File stored = new File( basedir, "fingerprint.properties" );
+        fingerprint.store( stored );
+
+        // only touched, as done by a git checkout
+        source.setLastModified( source.lastModified() - 10000 );
+
+        Fingerprint next = new Fingerprint( Fingerprint.load( stored ) );
+        next.addValue( "args", "-style OBF" );
+        next.addDirectory( new File( basedir, "src" ), null );
+        assertNull( next.getDifference( next.getPrevious() ) );
+        // the new stats are worth storing, to not hash the file again
+        assertFalse( next.isStored() );
+        next.store( stored );
+
+        Fingerprint last = new Fingerprint( Fingerprint.load( stored ) );
+        last.addValue( "args", "-style OBF" );
+        last.addDirectory( new File( basedir, "src" ), null );
+        assertTrue( last.isStored() );
+    }
+
+    public void testChanges()
+        throws Exception
+    {
+        File source = new File( basedir, "src/Foo.java" );
+        FileUtils.fileWrite( source.getPath(), "class Foo {}" );
+
+        Fingerprint fingerprint = new Fingerprint( null );
+        fingerprint.addValue( "args", "-style OBF" );
+        fingerprint.addFile( source );
+
+        FileUtils.fileWrite( source.getPath(), "class Foo { int i; }" );
+        File added = new File( basedir, "src/Bar.java" );
+        FileUtils.fileWrite( added.getPath(), "class Bar {}" );
+
+        Fingerprint next = new Fingerprint( fingerprint );
+        next.addValue( "args", "-style PRETTY" );
+        next.addDirectory( new File( basedir, "src" ), null );
+
+        String difference = next.getDifference( fingerprint );
+        assertNotNull( difference );
+        assertTrue( difference, difference.contains( "args has changed" ) );
+        assertTrue( difference, difference.contains( source.getAbsolutePath() + " has changed" ) );
+        assertTrue( difference, difference.contains( added.getAbsolutePath() + " was added" ) );
+    }
+
+    public void testRelocatedWorkspace()
+        throws Exception
+    {
+        File workspace = new File( basedir, "workspace" );
+        File source = new File( workspace, "src/Foo.java" );
+        source.getParentFile().mkdirs();
+        FileUtils.fileWrite( source.getPath(), "class Foo {}" );
+
+        Fingerprint fingerprint = new Fingerprint( null ).setRoots( workspace, null );
+        fingerprint.addFile( source );
+        fingerprint.addValue( "args", "-war " + new File( workspace, "target/war" ).getAbsolutePath() );
+        assertEquals( "${basedir}/src/Foo.java", fingerprint.getKey( source ) );
+        assertEquals( source.getAbsoluteFile(), fingerprint.getFile( "${basedir}/src/Foo.java" ) );
+
+        // restored from a CI cache into another workspace
+        File restored = new File( basedir, "restored" );
+        FileUtils.copyDirectoryStructure( workspace, restored );
+        Fingerprint next = new Fingerprint( fingerprint ).setRoots( restored, null );
+        next.addFile( new File( restored, "src/Foo.java" ) );
+        next.addValue( "args", "-war " + new File( restored, "target/war" ).getAbsolutePath() );
+        assertNull( next.getDifference( fingerprint ) );
+    }
+}
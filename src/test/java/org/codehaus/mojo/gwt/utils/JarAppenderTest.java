@@ -0,0 +1,96 @@
+package org.codehaus.mojo.gwt.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Check files are added to a jar, keeping and replacing original entries.
+ */
+public class JarAppenderTest
+    extends TestCase
+{
+    public void testAppend()
+        throws Exception
+    {
+        File basedir = TestDirectories.newScratchDirectory( "jar-appender" );
+        new File( basedir, "src/org/acme/client" ).mkdirs();
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+        manifest.getMainAttributes().putValue( "Built-By", "test" );
+        File jar = new File( basedir, "test.jar" );
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ), manifest );
+        out.putNextEntry( new ZipEntry( "org/" ) );
+        out.putNextEntry( new ZipEntry( "org/acme/" ) );
+        out.putNextEntry( new ZipEntry( "org/acme/Acme.gwt.xml" ) );
+        out.write( "<module/>".getBytes( "UTF-8" ) );
+        out.putNextEntry( new ZipEntry( "org/acme/Old.java" ) );
+        out.write( "class Old {}".getBytes( "UTF-8" ) );
+        out.close();
+
+        File foo = new File( basedir, "src/org/acme/client/Foo.java" );
+        FileUtils.fileWrite( foo.getPath(), "class Foo {}" );
+        File old = new File( basedir, "src/org/acme/Old.java" );
+        FileUtils.fileWrite( old.getPath(), "class Old { int i; }" );
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        files.put( "org/acme/client/Foo.java", foo );
+        files.put( "org/acme/Old.java", old );
+
+        JarAppender appender = new JarAppender( jar );
+        appender.append( files );
+        assertEquals( 1, appender.getReplaced() );
+
+        JarFile result = new JarFile( jar );
+        try
+        {
+            assertEquals( "test", result.getManifest().getMainAttributes().getValue( "Built-By" ) );
+            assertEquals( "<module/>", read( result, "org/acme/Acme.gwt.xml" ) );
+            assertEquals( "class Foo {}", read( result, "org/acme/client/Foo.java" ) );
+            assertEquals( "class Old { int i; }", read( result, "org/acme/Old.java" ) );
+            assertTrue( result.getEntry( "org/acme/client/" ).isDirectory() );
+            assertEquals( 7, result.size() );
+        }
+        finally
+        {
+            result.close();
+        }
+    }
+
+    private String read( JarFile jar, String name )
+        throws Exception
+    {
+        return IOUtil.toString( jar.getInputStream( jar.getEntry( name ) ), "UTF-8" );
+    }
+}
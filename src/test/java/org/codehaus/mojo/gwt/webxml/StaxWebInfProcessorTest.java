@@ -0,0 +1,133 @@
+package org.codehaus.mojo.gwt.webxml;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.codehaus.mojo.gwt.TestDirectories;
+import org.codehaus.plexus.util.FileUtils;
+import org.jdom.Comment;
+import org.jdom.Element;
+import org.jdom.input.SAXBuilder;
+
+/**
+ * Check the streaming web.xml merge inserts servlets at the same positions as the DOM based one.
+ */
+public class StaxWebInfProcessorTest
+    extends TestCase
+{
+    private static final String HEADER =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<web-app xmlns=\"http://java.sun.com/xml/ns/javaee\">\n";
+
+    private File basedir;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = TestDirectories.newScratchDirectory( "stax-webinf" );
+    }
+
+    public void testSchemaOrder()
+        throws Exception
+    {
+        assertSameMerge( HEADER + "  <display-name>app</display-name>\n"
+            + "  <filter><filter-name>f</filter-name><filter-class>F</filter-class></filter>\n"
+            + "  <servlet><servlet-name>s</servlet-name><servlet-class>S</servlet-class></servlet>\n"
+            + "  <!-- mappings -->\n"
+            + "  <servlet-mapping><servlet-name>s</servlet-name><url-pattern>/s</url-pattern></servlet-mapping>\n"
+            + "  <welcome-file-list><welcome-file>index.html</welcome-file></welcome-file-list>\n</web-app>\n" );
+    }
+
+    public void testUnknownElement()
+        throws Exception
+    {
+        assertSameMerge( HEADER + "  <display-name>app</display-name>\n  <jsp-config/>\n"
+            + "  <welcome-file-list><welcome-file>index.html</welcome-file></welcome-file-list>\n</web-app>\n" );
+    }
+
+    public void testAppendAndDuplicates()
+        throws Exception
+    {
+        assertSameMerge( HEADER + "  <servlet><servlet-name>com.example.Hello/hello</servlet-name>"
+            + "<servlet-class>com.example.Hello</servlet-class></servlet>\n</web-app>\n" );
+        assertSameMerge( "<web-app/>" );
+    }
+
+    private void assertSameMerge( String webXml )
+        throws Exception
+    {
+        File source = new File( basedir, "web.xml" );
+        FileUtils.fileWrite( source.getPath(), "UTF-8", webXml );
+
+        Set<ServletDescriptor> domServlets = getServlets();
+        File dom = new File( basedir, "dom.xml" );
+        new GwtWebInfProcessor().process( source, dom, domServlets );
+
+        Set<ServletDescriptor> staxServlets = getServlets();
+        File stax = new File( basedir, "stax.xml" );
+        new StaxWebInfProcessor().process( source, stax, staxServlets );
+
+        assertEquals( domServlets.size(), staxServlets.size() );
+        assertEquals( getContent( dom ), getContent( stax ) );
+
+        long lastModified = stax.lastModified() - 10000;
+        stax.setLastModified( lastModified );
+        new StaxWebInfProcessor().process( source, stax, getServlets() );
+        assertEquals( "unchanged file rewritten", lastModified, stax.lastModified() );
+    }
+
+    private static Set<ServletDescriptor> getServlets()
+    {
+        Set<ServletDescriptor> servlets = new LinkedHashSet<ServletDescriptor>();
+        servlets.add( new ServletDescriptor( "/hello", "com.example.Hello" ) );
+        servlets.add( new ServletDescriptor( "bye", "com.example.Bye" ) );
+        return servlets;
+    }
+
+    /**
+     * @return the elements and comments of the document root, with their text, ignoring formatting
+     */
+    private static List<String> getContent( File webXml )
+        throws Exception
+    {
+        List<String> content = new ArrayList<String>();
+        Element root = new SAXBuilder().build( webXml ).getRootElement();
+        for ( Object child : root.getContent() )
+        {
+            if ( child instanceof Element )
+            {
+                Element element = (Element) child;
+                content.add( element.getName() + ":" + element.getValue().replaceAll( "\\s", "" ) );
+            }
+            else if ( child instanceof Comment )
+            {
+                content.add( "<!--" + ( (Comment) child ).getText().trim() + "-->" );
+            }
+        }
+        return content;
+    }
+}